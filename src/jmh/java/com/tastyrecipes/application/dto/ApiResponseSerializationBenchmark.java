@@ -0,0 +1,68 @@
+package com.tastyrecipes.application.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of recipe summaries wrapped in {@link ApiResponse} to JSON bytes, with
+ * an ObjectMapper configured the way Spring Boot configures the one MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<RecipeDto> recipes = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            RecipeDto recipe = new RecipeDto();
+            recipe.setId((long) i);
+            recipe.setTitle("Recipe " + i);
+            recipe.setDescription("A short description of recipe " + i + " as shown on listing cards.");
+            recipe.setImageUrl("uploads/ab/cd/" + i + ".jpg");
+            recipe.setThumbnailUrl("uploads/ab/cd/" + i + "-thumb.jpg");
+            recipe.setCardImageUrl("uploads/ab/cd/" + i + "-card.jpg");
+            recipe.setUserId(7L);
+            recipe.setUserName("Cook");
+            recipe.setCreatedAt(LocalDateTime.now().minusHours(i));
+            recipe.setAverageRating(3.5 + (i % 3) * 0.5);
+            recipe.setReviewCount(i * 3);
+            recipes.add(recipe);
+        }
+        page = new ApiResponse(true, "Recipes retrieved successfully", recipes);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.Review;
+import com.tastyrecipes.application.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO conversion on the read paths: one recipe, a recipe's reviews at the
+ * sizes popular recipes reach, and the average rating read from the running aggregates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoConversionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int reviewCount;
+
+    private final RecipeService recipeService = new RecipeService();
+    private final ReviewService reviewService = new ReviewService();
+
+    private Recipe recipe;
+    private List<Review> reviews;
+
+    @Setup
+    public void setUp() {
+        User author = user(1L, "Cook");
+        recipe = new Recipe();
+        recipe.setId(42L);
+        recipe.setTitle("Thai Green Curry");
+        recipe.setDescription("A fragrant weeknight curry with plenty of sauce for rice.");
+        recipe.setIngredients("400 ml coconut milk\n2 tbsp green curry paste\n500 g chicken thighs\n1 cup basil");
+        recipe.setSteps("Fry the paste.\nAdd the coconut milk and chicken.\nSimmer for 15 minutes.\nStir in basil.");
+        recipe.setImageUrl("uploads/ab/cd/abcd.jpg");
+        recipe.setUser(author);
+        recipe.setCreatedAt(LocalDateTime.now());
+
+        reviews = new ArrayList<>(reviewCount);
+        for (int i = 0; i < reviewCount; i++) {
+            Review review = new Review();
+            review.setId((long) i);
+            review.setRecipe(recipe);
+            review.setUser(user(100L + i, "Reviewer " + i));
+            review.setRating(1 + i % 5);
+            review.setComment("Made this on a Tuesday, would make it again with a little more chilli.");
+            review.setCreatedAt(LocalDateTime.now().minusDays(i));
+            reviews.add(review);
+            recipe.setRatingSum(recipe.getRatingSum() + review.getRating());
+        }
+        recipe.setReviewCount(reviewCount);
+    }
+
+    private static User user(long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+
+    @Benchmark
+    public RecipeDto recipeToDto() {
+        return recipeService.convertToDto(recipe);
+    }
+
+    @Benchmark
+    public List<ReviewDto> reviewsToDtoList() {
+        return reviewService.convertToDtoList(reviews);
+    }
+
+    @Benchmark
+    public double averageRating() {
+        return recipe.getAverageRating();
+    }
+}
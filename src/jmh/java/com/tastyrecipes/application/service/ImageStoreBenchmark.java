@@ -0,0 +1,98 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.repository.ImageBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload throughput of {@link ImageStore#store}, which is all {@code saveImage} does:
+ * streaming to a temp file while hashing, then placing the file. "unique" uploads new
+ * content every time; "duplicate" re-uploads one image, which ends in deleting the temp
+ * file. The blob table is stubbed out, so this measures the file system and hashing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageStoreBenchmark {
+
+    private static final byte[] JPEG_HEADER = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    @Param({"65536", "1048576", "8388608"})
+    private int imageBytes;
+
+    private Path uploadDir;
+    private ImageStore imageStore;
+    private byte[] image;
+    private long counter;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("image-store-benchmark");
+        imageStore = new ImageStore();
+        ReflectionTestUtils.setField(imageStore, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(imageStore, "maxSize", 100L * 1024 * 1024);
+        ReflectionTestUtils.setField(imageStore, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(imageStore, "blobRepository", Proxy.newProxyInstance(
+                ImageBlobRepository.class.getClassLoader(), new Class<?>[]{ImageBlobRepository.class},
+                (proxy, method, args) -> method.getReturnType() == int.class ? 1 : null));
+
+        image = new byte[imageBytes];
+        new Random(42).nextBytes(image);
+        System.arraycopy(JPEG_HEADER, 0, image, 0, JPEG_HEADER.length);
+    }
+
+    // Unique uploads would otherwise fill the disk; uploads take long enough for per-invocation fixtures
+    @TearDown(Level.Invocation)
+    public void deleteUnique() throws IOException {
+        if (stored != null) {
+            Files.deleteIfExists(Path.of(stored));
+            stored = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public String unique() throws IOException {
+        // A new counter value after the header gives every upload a new hash
+        ByteBuffer.wrap(image).putLong(JPEG_HEADER.length, ++counter);
+        stored = imageStore.store(new ByteArrayInputStream(image), image.length);
+        return stored;
+    }
+
+    @Benchmark
+    public String duplicate() throws IOException {
+        ByteBuffer.wrap(image).putLong(JPEG_HEADER.length, 0L);
+        return imageStore.store(new ByteArrayInputStream(image), image.length);
+    }
+}
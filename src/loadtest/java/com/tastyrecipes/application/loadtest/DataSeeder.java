@@ -0,0 +1,193 @@
+package com.tastyrecipes.application.loadtest;
+
+import com.tastyrecipes.application.search.IngredientParser;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty schema with synthetic users, recipes and reviews through batched JDBC
+ * inserts. Generation is seeded, so the same settings always produce the same data.
+ * Review counts are skewed the way real sites are: most recipes have a few, some have
+ * many. Posters are extra users without seeded reviews, so the traffic's review posts
+ * never collide with existing ones.
+ */
+final class DataSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    static final String[] ADJECTIVES = {"smoky", "creamy", "spicy", "roasted", "crispy", "lemon", "garlic", "honey",
+            "herbed", "rustic", "classic", "quick", "sticky", "golden", "summer", "winter"};
+    static final String[] MAINS = {"chicken", "beef", "tofu", "salmon", "lentil", "mushroom", "pork", "shrimp",
+            "chickpea", "egg", "lamb", "halloumi", "cauliflower", "turkey"};
+    static final String[] DISHES = {"curry", "stew", "salad", "soup", "pasta", "tacos", "stir fry", "risotto", "pie",
+            "bake", "noodles", "burger", "skewers", "traybake", "chili"};
+    static final String[] INGREDIENTS = {"onion", "garlic", "tomatoes", "rice", "olive oil", "butter", "flour", "milk",
+            "cheddar", "basil", "ginger", "coconut milk", "potatoes", "carrots", "spinach", "lemon", "honey",
+            "soy sauce", "chilli", "cumin", "paprika", "black pepper", "salt", "sugar", "eggs", "cream", "parsley",
+            "chicken stock", "red pepper", "feta", "yogurt", "lime", "coriander", "mushrooms", "bacon", "pasta"};
+    private static final String[] UNITS = {"cups", "tbsp", "tsp", "g", "ml", "large", "cloves", "handful"};
+
+    record SeededData(long[] userIds, long[] posterIds, long[] recipeIds, int[] recipeOwners) {
+
+        static String email(int userIndex) {
+            return "user" + userIndex + "@loadtest.local";
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final LoadTestConfig config;
+    private final Random random;
+
+    DataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, LoadTestConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    SeededData seed() {
+        // One hash for everyone: BCrypt per user would dominate seeding time
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int totalUsers = config.users() + config.posters();
+        long[] allUserIds = new long[totalUsers];
+        for (int start = 0; start < totalUsers; start += config.batchSize()) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = start; i < Math.min(totalUsers, start + config.batchSize()); i++) {
+                rows.add(new Object[]{"User " + i, SeededData.email(i), passwordHash, now});
+            }
+            long[] ids = insertReturningKeys(
+                    "INSERT INTO users (name, email, password, created_at) VALUES (?, ?, ?, ?)", rows);
+            System.arraycopy(ids, 0, allUserIds, start, ids.length);
+        }
+        long[] userIds = Arrays.copyOfRange(allUserIds, 0, config.users());
+        long[] posterIds = Arrays.copyOfRange(allUserIds, config.users(), totalUsers);
+
+        long[] recipeIds = new long[config.recipes()];
+        int[] recipeOwners = new int[config.recipes()];
+        for (int start = 0; start < config.recipes(); start += config.batchSize()) {
+            int end = Math.min(config.recipes(), start + config.batchSize());
+            seedRecipeBatch(start, end, userIds, recipeIds, recipeOwners);
+        }
+        return new SeededData(userIds, posterIds, recipeIds, recipeOwners);
+    }
+
+    private void seedRecipeBatch(int start, int end, long[] userIds, long[] recipeIds, int[] recipeOwners) {
+        List<Object[]> recipeRows = new ArrayList<>();
+        List<List<int[]>> batchReviews = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            recipeOwners[i] = random.nextInt(userIds.length);
+
+            // Exponentially distributed review counts, by consecutive distinct reviewers
+            int reviewCount = Math.min(userIds.length,
+                    (int) (-config.reviewsPerRecipe() * Math.log(1 - random.nextDouble())));
+            int firstReviewer = random.nextInt(userIds.length);
+            List<int[]> reviews = new ArrayList<>(reviewCount);
+            long ratingSum = 0;
+            for (int r = 0; r < reviewCount; r++) {
+                int rating = Math.min(5, 1 + (int) Math.round(random.nextGaussian() * 1.1 + 3));
+                rating = Math.max(1, rating);
+                reviews.add(new int[]{(firstReviewer + r) % userIds.length, rating, random.nextInt(60 * 24)});
+                ratingSum += rating;
+            }
+            batchReviews.add(reviews);
+
+            String main = MAINS[random.nextInt(MAINS.length)];
+            String dish = DISHES[random.nextInt(DISHES.length)];
+            String title = capitalize(ADJECTIVES[random.nextInt(ADJECTIVES.length)]) + " " + capitalize(main) + " "
+                    + capitalize(dish);
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(365 * 24 * 60)));
+            recipeRows.add(new Object[]{title, description(main, dish), ingredients(main), steps(main, dish),
+                    userIds[recipeOwners[i]], createdAt, createdAt, ratingSum, reviewCount});
+        }
+
+        long[] ids = insertReturningKeys("INSERT INTO recipes " +
+                "(title, description, ingredients, steps, user_id, created_at, updated_at, rating_sum, review_count) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", recipeRows);
+        System.arraycopy(ids, 0, recipeIds, start, ids.length);
+
+        List<Object[]> ingredientRows = new ArrayList<>();
+        List<Object[]> reviewRows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ids.length; i++) {
+            for (String name : IngredientParser.parse((String) recipeRows.get(i)[2])) {
+                ingredientRows.add(new Object[]{ids[i], name});
+            }
+            for (int[] review : batchReviews.get(i)) {
+                reviewRows.add(new Object[]{userIds[review[0]], ids[i], review[1], "Seeded review",
+                        Timestamp.valueOf(now.minusMinutes(review[2]))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO recipe_ingredients (recipe_id, ingredient) VALUES (?, ?)", ingredientRows);
+        for (int from = 0; from < reviewRows.size(); from += config.batchSize()) {
+            jdbcTemplate.batchUpdate("INSERT INTO reviews (user_id, recipe_id, rating, comment, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?)", reviewRows.subList(from, Math.min(reviewRows.size(), from + config.batchSize())));
+        }
+    }
+
+    private long[] insertReturningKeys(String sql, List<Object[]> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = rows.get(i);
+                        for (int c = 0; c < row.length; c++) {
+                            ps.setObject(c + 1, row[c]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keys.getKeyList().get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    private String description(String main, String dish) {
+        return "A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + main + " " + dish
+                + " that comes together on a weeknight and keeps well for lunch the next day.";
+    }
+
+    private String ingredients(String main) {
+        StringBuilder text = new StringBuilder();
+        text.append(1 + random.nextInt(3)).append(" ").append(UNITS[random.nextInt(UNITS.length)]).append(" ")
+                .append(main);
+        int count = 5 + random.nextInt(6);
+        for (int i = 0; i < count; i++) {
+            text.append('\n').append(1 + random.nextInt(4)).append(' ').append(UNITS[random.nextInt(UNITS.length)])
+                    .append(' ').append(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    private String steps(String main, String dish) {
+        return "Prepare the " + main + " and vegetables.\nHeat the oil and cook the aromatics.\n"
+                + "Add the " + main + " and cook through.\nFinish the " + dish + " and season to taste.\nServe.";
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.tastyrecipes.application.loadtest;
+
+/**
+ * The request types in the traffic mix, with the method and route template each is reported under
+ * in {@code http.server.requests.queries}.
+ */
+enum Endpoint {
+    FEED("GET", "/api/recipes"),
+    SEARCH("GET", "/api/recipes/search"),
+    DETAIL("GET", "/api/recipes/{id}"),
+    REVIEW("POST", "/api/recipes/{recipeId}/reviews"),
+    UPLOAD("PUT", "/api/recipes/{id}/image");
+
+    private final String method;
+    private final String uriPattern;
+
+    Endpoint(String method, String uriPattern) {
+        this.method = method;
+        this.uriPattern = uriPattern;
+    }
+
+    String method() {
+        return method;
+    }
+
+    String uriPattern() {
+        return uriPattern;
+    }
+}
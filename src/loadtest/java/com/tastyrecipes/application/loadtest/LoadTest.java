@@ -0,0 +1,191 @@
+package com.tastyrecipes.application.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tastyrecipes.application.Application;
+import com.tastyrecipes.application.security.JwtUtil;
+import com.tastyrecipes.application.security.UserPrincipal;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * End-to-end load test. Boots the application on a random port against an in-memory H2
+ * database in MySQL mode, seeds it, then drives mixed authenticated traffic over HTTP and
+ * reports throughput, latency percentiles and SQL statements per request for each
+ * endpoint. The seed and settings fully determine the data, so runs are comparable
+ * across commits and configurations such as {@code virtual-threads=true}.
+ *
+ * <p>Usage: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="recipes=20000 duration=PT2M"}
+ */
+public final class LoadTest {
+
+    private record EndpointReport(long requests, long errors, double requestsPerSecond, double p50Ms, double p90Ms,
+                                  double p99Ms, double p999Ms, double maxMs, Double queriesPerRequest) {
+    }
+
+    private record Report(LoadTestConfig config, Map<String, Long> seeded, long seedMillis,
+                          Map<Endpoint, EndpointReport> endpoints) {
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        // Devtools would relaunch main in a restart class loader with the application's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Path workDir = Files.createTempDirectory("loadtest");
+
+        AtomicReference<DataSeeder.SeededData> seeded = new AtomicReference<>();
+        long[] seedMillis = new long[1];
+        // Runners finish before ApplicationReadyEvent, so the in-memory indexes load the seeded data
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Application.class).initializers(context ->
+                context.getBeanFactory().registerSingleton("loadTestSeeder", (ApplicationRunner) arguments -> {
+                    long startedAt = System.currentTimeMillis();
+                    seeded.set(new DataSeeder(context.getBean(JdbcTemplate.class),
+                            context.getBean(PasswordEncoder.class), config).seed());
+                    seedMillis[0] = System.currentTimeMillis() - startedAt;
+                }));
+
+        System.out.printf("Seeding %d users, %d posters and %d recipes...%n", config.users(), config.posters(),
+                config.recipes());
+        try (ConfigurableApplicationContext context = builder.run(arguments(config, workDir))) {
+            DataSeeder.SeededData data = seeded.get();
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (String table : List.of("users", "recipes", "reviews", "recipe_ingredients")) {
+                counts.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+            }
+            System.out.printf("Seeded %s in %d ms%n", counts, seedMillis[0]);
+
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            String[] userTokens = tokens(jwtUtil, data.userIds(), 0);
+            String[] posterTokens = tokens(jwtUtil, data.posterIds(), config.users());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            TrafficDriver driver = new TrafficDriver(config, data, "http://localhost:" + port, userTokens,
+                    posterTokens);
+            System.out.printf("Warming up for %s with %d workers...%n", config.warmup(), config.concurrency());
+            driver.run(config.warmup(), config.seed());
+
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            Map<Endpoint, Double> queriesBefore = queryTotals(registry);
+            System.out.printf("Measuring for %s...%n", config.duration());
+            Map<Endpoint, TrafficDriver.Sample> samples = driver.run(config.duration(), config.seed() * 31);
+            Map<Endpoint, Double> queriesAfter = queryTotals(registry);
+
+            Map<Endpoint, EndpointReport> endpoints = new EnumMap<>(Endpoint.class);
+            samples.forEach((endpoint, sample) -> endpoints.put(endpoint,
+                    report(sample, config.duration(), queriesAfter.get(endpoint) - queriesBefore.get(endpoint))));
+
+            Report report = new Report(config, counts, seedMillis[0], endpoints);
+            print(endpoints);
+            File reportFile = new File(config.report());
+            new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT)
+                    .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                    .writeValue(reportFile, report);
+            System.out.println("Report written to " + reportFile.getAbsolutePath());
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    // Command line arguments, as they take precedence over the application's own properties file
+    private static String[] arguments(LoadTestConfig config, Path workDir) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.config.location", "file:" + config.appConfig());
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("server.port", "0");
+        properties.put("spring.threads.virtual.enabled", String.valueOf(config.virtualThreads()));
+        properties.put("file.upload-dir", workDir.resolve("uploads").toString());
+        properties.put("search.index-dir", workDir.resolve("search-index").toString());
+        properties.put("leaderboards.snapshot-dir", workDir.resolve("leaderboards").toString());
+        properties.put("metrics.slow-request-threshold", "PT1H");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        return properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+    }
+
+    private static String[] tokens(JwtUtil jwtUtil, long[] ids, int firstIndex) {
+        String[] tokens = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int index = firstIndex + i;
+            tokens[i] = jwtUtil.generateToken(new UserPrincipal(ids[i], "User " + index,
+                    DataSeeder.SeededData.email(index), ""));
+        }
+        return tokens;
+    }
+
+    private static Map<Endpoint, Double> queryTotals(MeterRegistry registry) {
+        Map<Endpoint, Double> totals = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            DistributionSummary summary = registry.find("http.server.requests.queries")
+                    .tag("method", endpoint.method())
+                    .tag("uri", endpoint.uriPattern())
+                    .summary();
+            totals.put(endpoint, summary == null ? 0.0 : summary.totalAmount());
+        }
+        return totals;
+    }
+
+    // Responses served from the response cache run no queries and count as zero
+    private static EndpointReport report(TrafficDriver.Sample sample, Duration duration, double queries) {
+        long[] latencies = sample.latencies();
+        return new EndpointReport(sample.count(), sample.errors(),
+                sample.count() / (duration.toNanos() / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0),
+                sample.count() == 0 ? null : queries / sample.count());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static void print(Map<Endpoint, EndpointReport> endpoints) {
+        System.out.printf("%n%-8s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Errors", "Req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms", "Queries");
+        endpoints.forEach((endpoint, r) -> System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9s%n",
+                endpoint.name().toLowerCase(), r.requests(), r.errors(), r.requestsPerSecond(), r.p50Ms(), r.p90Ms(),
+                r.p99Ms(), r.p999Ms(), r.maxMs(),
+                r.queriesPerRequest() == null ? "-" : String.format("%.2f", r.queriesPerRequest())));
+    }
+
+    // Image variant jobs may still be writing while the context shuts down
+    private static void deleteRecursively(Path dir) {
+        try (var walk = Files.walk(dir)) {
+            List<Path> paths = walk.toList();
+            for (int i = paths.size() - 1; i >= 0; i--) {
+                Files.deleteIfExists(paths.get(i));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not remove " + dir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tastyrecipes.application.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Harness settings, given as {@code key=value} arguments. Every key has a default, so a
+ * bare run seeds a small data set and drives a minute of mixed traffic.
+ */
+record LoadTestConfig(
+        int users,
+        int posters,
+        int recipes,
+        double reviewsPerRecipe,
+        int batchSize,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Endpoint, Integer> mix,
+        boolean virtualThreads,
+        long seed,
+        String appConfig,
+        String report) {
+
+    private static final Set<String> KEYS = Set.of("users", "posters", "recipes", "reviews-per-recipe", "batch-size",
+            "concurrency", "warmup", "duration", "mix", "virtual-threads", "seed", "config", "report");
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+                Integer.parseInt(values.getOrDefault("users", "2000")),
+                Integer.parseInt(values.getOrDefault("posters", "200")),
+                Integer.parseInt(values.getOrDefault("recipes", "10000")),
+                Double.parseDouble(values.getOrDefault("reviews-per-recipe", "8")),
+                Integer.parseInt(values.getOrDefault("batch-size", "1000")),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Duration.parse(values.getOrDefault("warmup", "PT15S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                parseMix(values.getOrDefault("mix", "feed:40,search:20,detail:30,review:7,upload:3")),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("config", "target/classes/application.properties"),
+                values.getOrDefault("report", "target/loadtest-report.json"));
+
+        values.keySet().removeAll(KEYS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown settings: " + values.keySet());
+        }
+        return config;
+    }
+
+    // "feed:40,search:20" -> weights per endpoint; endpoints left out get no traffic
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
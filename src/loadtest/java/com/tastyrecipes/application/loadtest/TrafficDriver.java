@@ -0,0 +1,245 @@
+package com.tastyrecipes.application.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop traffic: each worker sends its next request as soon as the previous one
+ * completes, picking the endpoint by the configured mix. Workers keep their own latency
+ * buffers, so recording is contention free and percentiles are exact.
+ */
+final class TrafficDriver {
+
+    record Sample(long[] latencies, int count, long errors) {
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final DataSeeder.SeededData data;
+    private final String baseUrl;
+    private final String[] userTokens;
+    private final String[] posterTokens;
+    private final HttpClient client;
+    private final Endpoint[] mixTable;
+    private final byte[] image;
+
+    // Review posts walk (poster, recipe) pairs in an order that never repeats one
+    private final AtomicLong reviewSequence = new AtomicLong();
+    private final AtomicLong uploadSequence = new AtomicLong();
+
+    TrafficDriver(LoadTestConfig config, DataSeeder.SeededData data, String baseUrl, String[] userTokens,
+                  String[] posterTokens) {
+        this.config = config;
+        this.data = data;
+        this.baseUrl = baseUrl;
+        this.userTokens = userTokens;
+        this.posterTokens = posterTokens;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.mixTable = mixTable(config.mix());
+        this.image = sampleImage();
+    }
+
+    /**
+     * Runs the workers for the given time and returns what they recorded per endpoint.
+     */
+    Map<Endpoint, Sample> run(Duration duration, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Worker> workers = new ArrayList<>(config.concurrency());
+        CountDownLatch done = new CountDownLatch(config.concurrency());
+        for (int i = 0; i < config.concurrency(); i++) {
+            Worker worker = new Worker(new SplittableRandom(seed + i), deadline);
+            workers.add(worker);
+            Thread.ofVirtual().name("loadtest-worker-" + i).start(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        Map<Endpoint, Sample> samples = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : config.mix().keySet()) {
+            int count = 0;
+            long errors = 0;
+            for (Worker worker : workers) {
+                count += worker.counts[endpoint.ordinal()];
+                errors += worker.errors[endpoint.ordinal()];
+            }
+            long[] latencies = new long[count];
+            int offset = 0;
+            for (Worker worker : workers) {
+                int n = worker.counts[endpoint.ordinal()];
+                System.arraycopy(worker.latencies[endpoint.ordinal()], 0, latencies, offset, n);
+                offset += n;
+            }
+            Arrays.sort(latencies);
+            samples.put(endpoint, new Sample(latencies, count, errors));
+        }
+        return samples;
+    }
+
+    private final class Worker {
+        private final SplittableRandom random;
+        private final long deadline;
+        private final long[][] latencies = new long[Endpoint.values().length][1024];
+        private final int[] counts = new int[Endpoint.values().length];
+        private final long[] errors = new long[Endpoint.values().length];
+
+        Worker(SplittableRandom random, long deadline) {
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        void run() {
+            while (System.nanoTime() < deadline) {
+                Endpoint endpoint = mixTable[random.nextInt(mixTable.length)];
+                HttpRequest request = request(endpoint, random);
+                long startedAt = System.nanoTime();
+                boolean failed;
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    failed = response.statusCode() >= 400;
+                } catch (IOException e) {
+                    failed = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                record(endpoint, System.nanoTime() - startedAt, failed);
+            }
+        }
+
+        private void record(Endpoint endpoint, long nanos, boolean failed) {
+            int e = endpoint.ordinal();
+            if (counts[e] == latencies[e].length) {
+                latencies[e] = Arrays.copyOf(latencies[e], counts[e] * 2);
+            }
+            latencies[e][counts[e]++] = nanos;
+            if (failed) {
+                errors[e]++;
+            }
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, SplittableRandom random) {
+        return switch (endpoint) {
+            case FEED -> {
+                // Most readers stay on the first page
+                int page = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(20);
+                yield get("/api/recipes?page=" + page + "&size=20", random);
+            }
+            case SEARCH -> {
+                String[] words = random.nextBoolean() ? DataSeeder.MAINS : DataSeeder.DISHES;
+                yield get("/api/recipes/search?keyword=" + words[random.nextInt(words.length)].replace(' ', '+'),
+                        random);
+            }
+            case DETAIL -> get("/api/recipes/" + data.recipeIds()[skewedIndex(data.recipeIds().length, random)],
+                    random);
+            case REVIEW -> {
+                long n = reviewSequence.getAndIncrement();
+                int recipes = data.recipeIds().length;
+                String token = posterTokens[(int) ((n / recipes) % posterTokens.length)];
+                String body = "{\"rating\":" + (1 + random.nextInt(5)) + ",\"comment\":\"Load test review " + n + "\"}";
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/recipes/" + data.recipeIds()[(int) (n % recipes)]
+                                + "/reviews"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            case UPLOAD -> {
+                int recipe = random.nextInt(data.recipeIds().length);
+                String token = userTokens[data.recipeOwners()[recipe]];
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/recipes/" + data.recipeIds()[recipe] + "/image"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "image/jpeg")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(uniqueImage(uploadSequence.getAndIncrement())))
+                        .build();
+            }
+        };
+    }
+
+    // Half the reads come from an authenticated user, as on the real site
+    private HttpRequest get(String path, SplittableRandom random) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET();
+        if (random.nextBoolean()) {
+            builder.header("Authorization", "Bearer " + userTokens[random.nextInt(userTokens.length)]);
+        }
+        return builder.build();
+    }
+
+    // Squaring a uniform draw sends about a third of reads to the first tenth of recipes
+    private static int skewedIndex(int size, SplittableRandom random) {
+        double u = random.nextDouble();
+        return Math.min(size - 1, (int) (u * u * size));
+    }
+
+    // Bytes after the JPEG end marker are ignored by decoders but change the content hash
+    private byte[] uniqueImage(long n) {
+        byte[] unique = Arrays.copyOf(image, image.length + Long.BYTES);
+        ByteBuffer.wrap(unique, image.length, Long.BYTES).putLong(n);
+        return unique;
+    }
+
+    private static Endpoint[] mixTable(Map<Endpoint, Integer> mix) {
+        List<Endpoint> table = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(endpoint);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix has no weight");
+        }
+        return table.toArray(Endpoint[]::new);
+    }
+
+    private static byte[] sampleImage() {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            for (int y = 0; y < 600; y += 40) {
+                for (int x = 0; x < 800; x += 40) {
+                    graphics.setColor(new Color((x * 7 + y * 3) % 256, (x + y * 5) % 256, (x * y) % 256));
+                    graphics.fillRect(x, y, 40, 40);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
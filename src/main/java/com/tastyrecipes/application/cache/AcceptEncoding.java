@@ -0,0 +1,48 @@
+package com.tastyrecipes.application.cache;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding header the way RFC 9110 does: codings are case-insensitive,
+ * {@code q=0} means "not acceptable", and {@code *} stands for any coding not listed.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    public static boolean accepts(String header, String coding) {
+        if (header == null) {
+            return false;
+        }
+        Double explicit = null;
+        Double wildcard = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals(coding)) {
+                explicit = quality;
+            } else if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double quality = explicit != null ? explicit : wildcard;
+        return quality != null && quality > 0;
+    }
+
+    // A malformed weight counts as zero, so a coding is only used when clearly accepted
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,167 @@
+package com.tastyrecipes.application.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded, TTL-limited LRU shared by the in-process caches. A maximum size of zero or
+ * less disables it: nothing is stored and every lookup misses.
+ *
+ * <p>Loads happen outside the cache. A caller reads {@link #generation()} before loading
+ * and stores the result with {@link #put(Object, Object, long)}, which drops it if an
+ * invalidation happened in between, so a load that raced a change never caches stale data.
+ */
+public class BoundedTtlCache<K, V> implements MeterBinder {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // Bumped by every invalidation
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * The live value for the key, or {@code null} if it is absent or has expired.
+     */
+    public V get(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - now > 0) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores the value for the cache's TTL unless an invalidation happened since
+     * {@code loadGeneration} was read. Returns whether it was stored.
+     */
+    public boolean put(K key, V value, long loadGeneration) {
+        return store(key, value, loadGeneration, ttlNanos);
+    }
+
+    /**
+     * As {@link #put(Object, Object, long)}, for at most {@code ttl}, which may be shorter
+     * than the cache's own TTL but never longer.
+     */
+    public boolean put(K key, V value, long loadGeneration, Duration ttl) {
+        return store(key, value, loadGeneration, Math.min(ttl.toNanos(), ttlNanos));
+    }
+
+    private boolean store(K key, V value, long loadGeneration, long entryTtlNanos) {
+        if (maxSize <= 0 || entryTtlNanos <= 0) {
+            return false;
+        }
+        long expiresAt = System.nanoTime() + entryTtlNanos;
+        synchronized (entries) {
+            if (loadGeneration != generation) {
+                return false;
+            }
+            entries.put(key, new Entry<>(value, expiresAt));
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            if (entries.remove(key) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> affected) {
+        synchronized (entries) {
+            generation++;
+            entries.entrySet().removeIf(mapping -> {
+                if (affected.test(mapping.getKey(), mapping.getValue().value())) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            evictions.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tastyrecipes.application.cache;
+
+/**
+ * Optional shared second tier behind {@link RecipeCache}, e.g. Redis or Memcached.
+ * Register a bean implementing it to enable the tier; implementations own
+ * serialization and their own expiry.
+ */
+public interface CacheTier {
+
+    /**
+     * Returns the cached value, or null on a miss.
+     */
+    Object get(String key);
+
+    void put(String key, Object value);
+
+    void evict(String key);
+}
@@ -0,0 +1,210 @@
+package com.tastyrecipes.application.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bloom filters in front of the existence checks made before writes: is an email
+ * already registered, has a user already reviewed a recipe. The answer is nearly always
+ * no, and the filter gives that without a query; only possible hits go to the database.
+ * Until the filters have loaded every check goes to the database.
+ *
+ * <p>Keys are added once their transaction commits, and a rebuild starts collecting
+ * additions before it scans the table, so a committed key is never missing. Keys are
+ * not removed on delete; the stale bits only cost a query until the next rebuild.
+ */
+@Component
+public class ExistenceFilters implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ExistenceFilters.class);
+
+    private static final String EMAILS_SQL = "SELECT email FROM users";
+    private static final String REVIEWS_SQL = "SELECT user_id, recipe_id FROM reviews";
+
+    private static final class Filter {
+        private final String name;
+        private final String countSql;
+        private volatile BloomFilter current;
+        // Receives additions while a rebuild is scanning
+        private volatile BloomFilter building;
+
+        private final LongAdder negatives = new LongAdder();
+        private final LongAdder confirmed = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        Filter(String name, String countSql) {
+            this.name = name;
+            this.countSql = countSql;
+        }
+
+        boolean exists(long key, BooleanSupplier query) {
+            BloomFilter filter = current;
+            if (filter != null && !filter.mightContain(key)) {
+                negatives.increment();
+                return false;
+            }
+            boolean exists = query.getAsBoolean();
+            if (filter != null) {
+                (exists ? confirmed : falsePositives).increment();
+            }
+            return exists;
+        }
+
+        void add(long key) {
+            BloomFilter next = building;
+            if (next != null) {
+                next.put(key);
+            }
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(key);
+            }
+        }
+    }
+
+    private final Filter emails = new Filter("emails", "SELECT COUNT(*) FROM users");
+    private final Filter reviews = new Filter("reviews", "SELECT COUNT(*) FROM reviews");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${existence-filters.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Sized for this many times the current rows, so growth until the next rebuild stays within the rate
+    @Value("${existence-filters.headroom:2}")
+    private double headroom;
+
+    @Value("${existence-filters.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Whether the email may already be registered; {@code query} asks the database
+     * when the filter cannot rule it out.
+     */
+    public boolean emailExists(String email, BooleanSupplier query) {
+        return emails.exists(emailKey(email), query);
+    }
+
+    public void addEmail(String email) {
+        afterCommit(emails, emailKey(email));
+    }
+
+    public boolean reviewExists(long userId, long recipeId, BooleanSupplier query) {
+        return reviews.exists(BloomFilter.key(userId, recipeId), query);
+    }
+
+    public void addReview(long userId, long recipeId) {
+        afterCommit(reviews, BloomFilter.key(userId, recipeId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Reloads both filters from the tables, dropping deleted keys and resizing for growth.
+     */
+    @Scheduled(initialDelayString = "${existence-filters.rebuild-interval:PT6H}",
+            fixedDelayString = "${existence-filters.rebuild-interval:PT6H}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            load(emails, EMAILS_SQL, rs -> emails.building.put(emailKey(rs.getString(1))));
+            load(reviews, REVIEWS_SQL, rs -> reviews.building.put(BloomFilter.key(rs.getLong(1), rs.getLong(2))));
+            log.info("Existence filters loaded in {} ms ({} + {} bytes)", System.currentTimeMillis() - startedAt,
+                    emails.current.sizeInBytes(), reviews.current.sizeInBytes());
+        } catch (Exception e) {
+            // Checks keep going to the database, or to the previous filter if there is one
+            log.error("Failed to load existence filters", e);
+        }
+    }
+
+    private void load(Filter filter, String sql, RowCallbackHandler loader) {
+        Long rows = jdbcTemplate.queryForObject(filter.countSql, Long.class);
+        long expected = Math.max(10_000L, (long) (rows * headroom));
+        filter.building = new BloomFilter(expected, falsePositiveRate);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, loader);
+            filter.current = filter.building;
+        } finally {
+            filter.building = null;
+        }
+    }
+
+    private static void afterCommit(Filter filter, long key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    filter.add(key);
+                }
+            });
+        } else {
+            filter.add(key);
+        }
+    }
+
+    /*
+     * Emails equal under MySQL's default utf8mb4_0900_ai_ci collation should share a key.
+     * Compatibility decomposition splits ligatures, accents and case are dropped and ß is
+     * expanded, which covers what addresses contain in practice; anything it still misses
+     * is caught by the unique key on users.email.
+     */
+    static long emailKey(String email) {
+        String folded = Normalizer.normalize(email.trim(), Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        return BloomFilter.key(folded.toLowerCase(Locale.ROOT).replace("\u00df", "ss"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Filter filter : new Filter[]{emails, reviews}) {
+            Gauge.builder("existence.filter.size", filter, f -> f.current == null ? 0 : f.current.sizeInBytes())
+                    .tag("filter", filter.name)
+                    .baseUnit("bytes")
+                    .description("Memory held by the filter's bit array")
+                    .register(registry);
+            Gauge.builder("existence.filter.expected.fpp", filter,
+                            f -> f.current == null ? 1.0 : f.current.expectedFalsePositiveRate())
+                    .tag("filter", filter.name)
+                    .description("Chance a new key is reported present, from the bits set so far")
+                    .register(registry);
+            FunctionCounter.builder("existence.filter.checks", filter.negatives, LongAdder::sum)
+                    .tag("filter", filter.name).tag("result", "negative")
+                    .description("Checks answered by the filter without a query")
+                    .register(registry);
+            FunctionCounter.builder("existence.filter.checks", filter.confirmed, LongAdder::sum)
+                    .tag("filter", filter.name).tag("result", "positive")
+                    .description("Possible hits the database confirmed")
+                    .register(registry);
+            FunctionCounter.builder("existence.filter.checks", filter.falsePositives, LongAdder::sum)
+                    .tag("filter", filter.name).tag("result", "false_positive")
+                    .description("Possible hits the database ruled out")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.tastyrecipes.application.cache;
+
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Two-level cache for recipe details and the first pages of the newest-first listing.
+ * The first tier is a bounded, TTL-limited LRU in this JVM; the optional second tier is
+ * any {@link CacheTier} bean. Entries are evicted after commit by the recipe and review
+ * events that touch them, and concurrent misses for one key share a single load.
+ *
+ * <p>Every invalidation is also applied to the {@link ResponseBodyCache}. Other
+ * instances only learn about a change through the shared tier, so the local TTL bounds
+ * how long they can serve a stale entry.
+ */
+@Component
+public class RecipeCache implements MeterBinder {
+
+    private static final Sort LISTING_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    /**
+     * A cached listing page. Only the content and total are kept, so a shared tier can
+     * store it without knowing about Spring Data types.
+     */
+    public record PageEntry(List<RecipeDto> content, long totalElements) {
+    }
+
+    private record Entry(Object value, Set<Long> recipeIds, Set<Long> userIds) {
+    }
+
+    private final int cachedPages;
+    private final Set<Integer> pageSizes;
+    private final CacheTier secondTier;
+    private final ResponseBodyCache responseCache;
+
+    private final BoundedTtlCache<String, Entry> entries;
+    private final Map<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder secondTierHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public RecipeCache(@Value("${recipes.cache.max-size:10000}") int maxSize,
+                       @Value("${recipes.cache.ttl:PT30S}") Duration ttl,
+                       @Value("${recipes.cache.pages:3}") int cachedPages,
+                       @Value("${recipes.cache.page-sizes:10,20,50}") Set<Integer> pageSizes,
+                       ObjectProvider<CacheTier> secondTier,
+                       ResponseBodyCache responseCache) {
+        this.entries = new BoundedTtlCache<>("recipes", maxSize, ttl);
+        this.cachedPages = cachedPages;
+        this.pageSizes = Set.copyOf(pageSizes);
+        this.secondTier = secondTier.getIfAvailable();
+        this.responseCache = responseCache;
+    }
+
+    public RecipeDto getRecipe(Long id, Supplier<RecipeDto> loader) {
+        return (RecipeDto) get(recipeKey(id), loader::get);
+    }
+
+    /**
+     * Looks each recipe up in the cache and loads all misses with one call to the loader,
+     * returning the recipes found in the order of {@code ids}. Misses are not coalesced.
+     */
+    public List<RecipeDto> getRecipes(List<Long> ids, Function<Collection<Long>, List<RecipeDto>> loader) {
+        long loadGeneration = entries.generation();
+        Map<Long, RecipeDto> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(recipeKey(id));
+            if (entry != null) {
+                found.put(id, (RecipeDto) entry.value());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            loads.add(missing.size());
+            for (RecipeDto recipe : loader.apply(missing)) {
+                found.put(recipe.getId(), recipe);
+                if (putLocal(recipeKey(recipe.getId()), recipe, loadGeneration) && secondTier != null) {
+                    secondTier.put(recipeKey(recipe.getId()), recipe);
+                }
+            }
+        }
+
+        List<RecipeDto> recipes = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            RecipeDto recipe = found.get(id);
+            if (recipe != null) {
+                recipes.add(recipe);
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Serves the page from the cache when it is one of the first newest-first pages in a
+     * cached size; anything else goes straight to the loader.
+     */
+    public Page<RecipeDto> getRecipePage(Pageable pageable, Supplier<Page<RecipeDto>> loader) {
+        if (!isCacheable(pageable)) {
+            return loader.get();
+        }
+        PageEntry entry = (PageEntry) get(pageKey(pageable.getPageNumber(), pageable.getPageSize()), () -> {
+            Page<RecipeDto> page = loader.get();
+            return new PageEntry(page.getContent(), page.getTotalElements());
+        });
+        return new PageImpl<>(entry.content(), pageable, entry.totalElements());
+    }
+
+    private boolean isCacheable(Pageable pageable) {
+        return entries.isEnabled() && pageable.isPaged() && pageable.getPageNumber() < cachedPages
+                && pageSizes.contains(pageable.getPageSize()) && LISTING_SORT.equals(pageable.getSort());
+    }
+
+    private Object get(String key, Supplier<Object> loader) {
+        if (!entries.isEnabled()) {
+            return loader.get();
+        }
+
+        long loadGeneration = entries.generation();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry.value();
+        }
+
+        if (secondTier != null) {
+            Object value = secondTier.get(key);
+            if (value != null) {
+                secondTierHits.increment();
+                putLocal(key, value, loadGeneration);
+                return value;
+            }
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inflight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        loads.increment();
+        try {
+            Object value = loader.get();
+            if (putLocal(key, value, loadGeneration) && secondTier != null) {
+                secondTier.put(key, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, load);
+        }
+    }
+
+    private boolean putLocal(String key, Object value, long loadGeneration) {
+        Set<Long> recipeIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        List<RecipeDto> recipes = value instanceof PageEntry page ? page.content() : List.of((RecipeDto) value);
+        for (RecipeDto recipe : recipes) {
+            recipeIds.add(recipe.getId());
+            userIds.add(recipe.getUserId());
+        }
+
+        return entries.put(key, new Entry(value, recipeIds, userIds), loadGeneration);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.getType() == RecipeChangedEvent.Type.UPDATED) {
+            invalidateRecipe(event.getRecipeId());
+        } else {
+            // A new or removed recipe shifts every listing page
+            evictRecipe(event.getRecipeId());
+            evictPages(entry -> true);
+            responseCache.invalidateRecipe(event.getRecipeId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        invalidateRecipe(event.getRecipeId());
+    }
+
+    /**
+     * Drops the recipe's detail and every listing page showing it.
+     */
+    public void invalidateRecipe(Long recipeId) {
+        evictRecipe(recipeId);
+        evictPages(entry -> entry.recipeIds().contains(recipeId));
+        responseCache.invalidateRecipe(recipeId);
+    }
+
+    /**
+     * Drops everything showing the user's name, once the surrounding transaction commits.
+     */
+    public void invalidateUser(Long userId) {
+        Runnable evict = () -> {
+            evict(entry -> entry.userIds().contains(userId), true);
+            // Cached reviews responses show reviewer names too
+            responseCache.invalidateAll();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    public void invalidateAll() {
+        evict(entry -> true, true);
+        responseCache.invalidateAll();
+    }
+
+    private void evictRecipe(Long recipeId) {
+        String key = recipeKey(recipeId);
+        entries.invalidate(key);
+        inflight.remove(key);
+        if (secondTier != null) {
+            secondTier.evict(key);
+        }
+    }
+
+    private void evictPages(Predicate<Entry> affected) {
+        evict(entry -> entry.value() instanceof PageEntry && affected.test(entry), false);
+    }
+
+    // The shared tier cannot be searched by content: every cacheable page key is evicted
+    // there, and details only when this instance holds them locally
+    private void evict(Predicate<Entry> affected, boolean includeDetails) {
+        List<String> removedDetails = new ArrayList<>();
+        entries.invalidateIf((key, entry) -> {
+            boolean page = entry.value() instanceof PageEntry;
+            if ((page || includeDetails) && affected.test(entry)) {
+                if (!page) {
+                    removedDetails.add(key);
+                }
+                return true;
+            }
+            return false;
+        });
+        inflight.clear();
+
+        if (secondTier != null) {
+            for (int page = 0; page < cachedPages; page++) {
+                for (int size : pageSizes) {
+                    secondTier.evict(pageKey(page, size));
+                }
+            }
+            removedDetails.forEach(secondTier::evict);
+        }
+    }
+
+    private static String recipeKey(Long id) {
+        return "recipe:" + id;
+    }
+
+    private static String pageKey(int page, int size) {
+        return "recipes:newest:" + page + ":" + size;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Hits, misses, evictions and size come from the local tier; each local miss is then
+    // answered by exactly one of these sources
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entries.bindTo(registry);
+        FunctionCounter.builder("cache.loads", secondTierHits, LongAdder::sum)
+                .tag("cache", "recipes").tag("source", "second-tier")
+                .description("Recipe lookups served from the shared tier")
+                .register(registry);
+        FunctionCounter.builder("cache.loads", coalesced, LongAdder::sum)
+                .tag("cache", "recipes").tag("source", "coalesced")
+                .description("Recipe lookups that waited for a concurrent load of the same key")
+                .register(registry);
+        FunctionCounter.builder("cache.loads", loads, LongAdder::sum)
+                .tag("cache", "recipes").tag("source", "database")
+                .description("Recipe lookups that went to the database")
+                .register(registry);
+    }
+}
@@ -0,0 +1,89 @@
+package com.tastyrecipes.application.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON bodies of hot recipe reads, with a gzipped copy, served by
+ * {@link ResponseBodyCacheFilter}. Entries for one recipe (detail and reviews) are keyed
+ * to its id; listing and search responses are dropped on any recipe or review change.
+ * Invalidation goes through {@link RecipeCache}, which sees every such change.
+ */
+@Component
+public class ResponseBodyCache implements MeterBinder {
+
+    static final long LISTING = -1L;
+
+    record Entry(byte[] body, byte[] gzipBody, String contentType, String etag, long recipeId) {
+    }
+
+    private final BoundedTtlCache<String, Entry> entries;
+
+    // Part of every ETag, so tags issued before a restart never match new content
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ResponseBodyCache(@Value("${responses.cache.max-entries:2000}") int maxEntries,
+                             @Value("${responses.cache.ttl:PT30S}") Duration ttl) {
+        this.entries = new BoundedTtlCache<>("responses", maxEntries, ttl);
+    }
+
+    boolean isEnabled() {
+        return entries.isEnabled();
+    }
+
+    Entry get(String key) {
+        return entries.get(key);
+    }
+
+    long generation() {
+        return entries.generation();
+    }
+
+    /**
+     * Stores the body unless an invalidation happened since {@code renderGeneration} was
+     * read, and returns the entry's ETag either way.
+     */
+    String put(String key, byte[] body, String contentType, long recipeId, long renderGeneration) {
+        String etag = "\"" + epoch + "-" + Long.toHexString(sequence.incrementAndGet()) + "\"";
+        entries.put(key, new Entry(body, gzip(body), contentType, etag, recipeId), renderGeneration);
+        return etag;
+    }
+
+    public void invalidateRecipe(Long recipeId) {
+        entries.invalidateIf((key, entry) -> entry.recipeId() == LISTING || entry.recipeId() == recipeId);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entries.bindTo(registry);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tastyrecipes.application.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Serves GET responses of the public recipe reads (listing, search, detail and reviews)
+ * from {@link ResponseBodyCache}: a hit writes the stored bytes, gzipped when accepted,
+ * straight to the output stream, and a matching If-None-Match gets a 304. Runs after the
+ * security filter chain, so access rules still apply.
+ */
+@Component
+public class ResponseBodyCacheFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/api/recipes";
+
+    @Autowired
+    private ResponseBodyCache cache;
+
+    @Value("${responses.cache.max-body-size:262144}")
+    private int maxBodySize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cache.isEnabled() || !"GET".equals(request.getMethod()) || recipeIdOf(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String uri = request.getRequestURI();
+        String query = request.getQueryString();
+        String key = query == null ? uri : uri + '?' + query;
+
+        ResponseBodyCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            writeCached(request, response, entry);
+            return;
+        }
+
+        long renderGeneration = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentSize() <= maxBodySize
+                && contentType != null && contentType.startsWith("application/json")) {
+            String etag = cache.put(key, wrapper.getContentAsByteArray(), contentType,
+                    recipeIdOf(uri), renderGeneration);
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, ResponseBodyCache.Entry entry)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // "*" only asks whether a current representation exists, and a cached entry is one
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.trim().equals("*")) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(entry.etag())) {
+            return;
+        }
+
+        byte[] body = entry.body();
+        if (AcceptEncoding.accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), "gzip")) {
+            body = entry.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setContentType(entry.contentType());
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * The recipe a cacheable URI belongs to, {@link ResponseBodyCache#LISTING} for listing
+     * and search, or null when the URI is not cached.
+     */
+    static Long recipeIdOf(String uri) {
+        if (!uri.startsWith(PREFIX)) {
+            return null;
+        }
+        int length = uri.length();
+        int start = PREFIX.length();
+        if (start == length || uri.startsWith("/search", start) && start + 7 == length) {
+            return ResponseBodyCache.LISTING;
+        }
+        if (uri.charAt(start) != '/') {
+            return null;
+        }
+
+        int end = ++start;
+        long id = 0;
+        while (end < length && end - start < 18 && Character.isDigit(uri.charAt(end))) {
+            id = id * 10 + (uri.charAt(end) - '0');
+            end++;
+        }
+        if (end == start || !(end == length || uri.startsWith("/reviews", end) && end + 8 == length)) {
+            return null;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tastyrecipes.application.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Puts an {@link AdmissionControlDataSource} in front of the Hikari pool. Enabled with
+     * virtual threads by default; the limit defaults to the pool size.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "db.admission.enabled", havingValue = "true")
+    static BeanPostProcessor admissionControlPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                return admissionControlled(hikari, environment);
+            }
+        };
+    }
+
+    private static DataSource admissionControlled(HikariDataSource hikari, Environment environment) {
+        // Hikari only fills in its default pool size of 10 when the pool starts
+        int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : 10;
+        int maxConcurrent = environment.getProperty("db.admission.max-concurrent", Integer.class, poolSize);
+        Duration timeout = environment.getProperty("db.admission.timeout", Duration.class,
+                Duration.ofMillis(hikari.getConnectionTimeout()));
+        return new AdmissionControlDataSource(hikari, maxConcurrent, timeout);
+    }
+
+    /**
+     * Read replicas, enabled by listing their URLs in {@code db.replicas.urls}. The
+     * primary is still configured by {@code spring.datasource.*}; replicas share its
+     * credentials and pool settings unless {@code db.replicas.*} overrides them.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "db.replicas.urls")
+    static class ReplicaConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            primary.setPoolName("primary");
+            return primary;
+        }
+
+        @Bean
+        ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                          DataSourceProperties properties, Environment environment,
+                                                          ReadYourWrites readYourWrites) {
+            Binder binder = Binder.get(environment);
+            List<String> urls = binder.bind("db.replicas.urls", Bindable.listOf(String.class)).get();
+            boolean admissionControl = environment.getProperty("db.admission.enabled", Boolean.class, false);
+
+            List<DataSource> replicas = new ArrayList<>();
+            for (String url : urls) {
+                HikariDataSource replica = properties.initializeDataSourceBuilder()
+                        .type(HikariDataSource.class)
+                        .url(url)
+                        .username(environment.getProperty("db.replicas.username", properties.determineUsername()))
+                        .password(environment.getProperty("db.replicas.password", properties.determinePassword()))
+                        .build();
+                binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+                binder.bind("db.replicas.hikari", Bindable.ofInstance(replica));
+                replica.setPoolName("replica-" + replicas.size());
+                replicas.add(admissionControl ? admissionControlled(replica, environment) : replica);
+            }
+            return new ReplicaRoutingDataSource(primary, replicas, readYourWrites);
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+
+        // By default a session keeps its connection until it closes, and the one opened for
+        // the whole request would carry a replica connection into later writes
+        @Bean
+        HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+            return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tastyrecipes.application.config;
+
+import com.tastyrecipes.application.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a write in the last {@code db.replicas.sticky-window},
+ * so their reads stay on the primary until the replicas have caught up with it. The user
+ * comes from the security context, which Spring Security also hands to the async threads
+ * that write {@code StreamingResponseBody} responses.
+ */
+@Component
+public class ReadYourWrites {
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    // User id to the System.nanoTime() until which their reads go to the primary
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    @Value("${db.replicas.sticky-window:PT5S}")
+    private Duration stickyWindow;
+
+    /**
+     * Whether the current user wrote recently enough that a replica may not have their write yet.
+     */
+    public boolean currentUserIsSticky() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        stickyUntil.remove(userId, until);
+        return false;
+    }
+
+    /**
+     * Marks the current user once the surrounding transaction commits, or now if there is none.
+     */
+    public void currentUserWriting() {
+        Long userId = currentUserId();
+        if (userId != null) {
+            userWriting(userId);
+        }
+    }
+
+    /**
+     * Marks the given user once the surrounding transaction commits, for writes made before
+     * they are signed in, such as registration.
+     */
+    public void userWriting(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWrite(userId);
+                }
+            });
+        } else {
+            markWrite(userId);
+        }
+    }
+
+    public void markWrite(Long userId) {
+        long now = System.nanoTime();
+        if (stickyUntil.size() >= SWEEP_THRESHOLD) {
+            stickyUntil.values().removeIf(until -> until - now <= 0);
+        }
+        stickyUntil.put(userId, now + stickyWindow.toNanos());
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tastyrecipes.application.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out replica connections, round robin, inside read-only transactions and primary
+ * connections everywhere else. Users who wrote within the sticky window keep reading
+ * from the primary so they see their own writes despite replica lag.
+ *
+ * <p>Must sit behind a {@link LazyConnectionDataSourceProxy}: the transaction manager takes
+ * its connection before the transaction is marked read-only, and the proxy only picks
+ * the target when the first statement runs.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, Closeable {
+    private static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys.add("replica-" + i);
+            targets.put(replicaKeys.get(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.currentUserWriting();
+            }
+            writes.increment();
+            return PRIMARY;
+        }
+        if (readYourWrites.currentUserIsSticky()) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+        reads.increment();
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            try {
+                if (replica.isWrapperFor(Closeable.class)) {
+                    replica.unwrap(Closeable.class).close();
+                }
+            } catch (SQLException | IOException e) {
+                logger.warn("Failed to close replica pool", e);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("db.routing.connections", writes, LongAdder::sum)
+                .tag("target", "primary").tag("reason", "read_write")
+                .description("Connections handed out by the replica router")
+                .register(registry);
+        FunctionCounter.builder("db.routing.connections", stickyReads, LongAdder::sum)
+                .tag("target", "primary").tag("reason", "read_your_writes")
+                .description("Connections handed out by the replica router")
+                .register(registry);
+        FunctionCounter.builder("db.routing.connections", reads, LongAdder::sum)
+                .tag("target", "replica").tag("reason", "read")
+                .description("Connections handed out by the replica router")
+                .register(registry);
+    }
+}
@@ -6,6 +6,7 @@ import com.tastyrecipes.application.dto.AuthResponse;
 import com.tastyrecipes.application.dto.UserDto;
 import com.tastyrecipes.application.model.User;
 import com.tastyrecipes.application.security.JwtUtil;
+import com.tastyrecipes.application.security.UserPrincipal;
 import com.tastyrecipes.application.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +17,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -60,32 +60,28 @@ public ResponseEntity<ApiResponse> register(@Valid @RequestBody UserDto userDto)
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
 
         String token = jwtUtil.generateToken(userDetails);
-        User user = userService.findByEmail(userDetails.getUsername());
 
         AuthResponse authResponse = new AuthResponse(
                 token,
-                user.getId(),
-                user.getName(),
-                user.getEmail()
+                userDetails.getId(),
+                userDetails.getName(),
+                userDetails.getEmail()
         );
 
         return ResponseEntity.ok(new ApiResponse(true, "Login successful", authResponse));
     }
 
     @DeleteMapping("/delete-account")
-    public ResponseEntity<ApiResponse> deleteAccount(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse> deleteAccount(@AuthenticationPrincipal UserPrincipal userDetails) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse(false, "Authentication required"));
         }
 
-        String email = userDetails.getUsername();
-        User user = userService.findByEmail(email);
-
-        userService.deleteAccount(user.getId());
+        userService.deleteAccount(userDetails.getId());
 
         return ResponseEntity.ok(new ApiResponse(true, "Account deleted successfully"));
     }
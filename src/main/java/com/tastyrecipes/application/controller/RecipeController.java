@@ -1,55 +1,74 @@
 package com.tastyrecipes.application.controller;
 
+import com.tastyrecipes.application.config.AsyncTimeoutConfig;
 import com.tastyrecipes.application.dto.ApiResponse;
+import com.tastyrecipes.application.dto.CursorPage;
+import com.tastyrecipes.application.dto.ImportResult;
+import com.tastyrecipes.application.dto.PantryMatchDto;
+import com.tastyrecipes.application.dto.SuggestionsDto;
 import com.tastyrecipes.application.dto.RecipeDto;
 import com.tastyrecipes.application.model.Recipe;
-import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.security.UserPrincipal;
+import com.tastyrecipes.application.service.RecipeBulkService;
 import com.tastyrecipes.application.service.RecipeService;
-import com.tastyrecipes.application.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/recipes")
 public class RecipeController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     @Autowired
     private RecipeService recipeService;
 
     @Autowired
-    private UserService userService;
+    private RecipeBulkService recipeBulkService;
+
+    @Value("${recipes.export.request-timeout:PT10M}")
+    private Duration exportTimeout;
 
     @GetMapping
     public ResponseEntity<ApiResponse> getAllRecipes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) String cursor) {
+
+        // Passing "cursor" (empty for the first page) switches to newest-first keyset paging
+        if (cursor != null) {
+            checkCursorOrder(sortBy, direction, "createdAt");
+            CursorPage<RecipeDto> recipePage = recipeService.findSummariesAfterCursor(cursor, size);
+            return ResponseEntity.ok(new ApiResponse(true, "Recipes retrieved successfully",
+                    recipePage.getContent(), recipePage.getNextCursor()));
+        }
 
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
 
-        Page<Recipe> recipePage = recipeService.findAll(pageable);
+        Page<RecipeDto> recipePage = recipeService.findAllSummaries(pageable);
 
-        List<RecipeDto> content = recipePage.getContent().stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(new ApiResponse(true, "Recipes retrieved successfully", content));
+        return ResponseEntity.ok(new ApiResponse(true, "Recipes retrieved successfully", recipePage.getContent()));
     }
 
     @GetMapping("/search")
@@ -57,25 +76,138 @@ public class RecipeController {
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) String cursor) {
+
+        // Cursor paging follows the search index's ranking
+        if (cursor != null) {
+            checkCursorOrder(sortBy, direction, "relevance");
+            CursorPage<RecipeDto> recipePage = recipeService.searchRecipesAfterCursor(keyword, cursor, size);
+            return ResponseEntity.ok(new ApiResponse(true, "Search results",
+                    recipePage.getContent(), recipePage.getNextCursor()));
+        }
 
+        // "relevance" keeps the search index's ranking; any other field is sorted by the database
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+        Sort sort = sortBy.equalsIgnoreCase("relevance") ? Sort.unsorted() : Sort.by(sortDirection, sortBy);
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        Page<RecipeDto> recipePage = recipeService.searchRecipes(keyword, pageable);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Search results", recipePage.getContent()));
+    }
+
+    // A cursor walks one fixed order; asking for another is an error rather than silently ignored
+    private static void checkCursorOrder(String sortBy, String direction, String cursorOrder) {
+        if (!sortBy.equalsIgnoreCase(cursorOrder) || !direction.equalsIgnoreCase("desc")) {
+            throw new IllegalArgumentException("Cursor paging only supports sortBy=" + cursorOrder + "&direction=desc");
+        }
+    }
+
+    /**
+     * Typeahead for the search box: recipe titles with a word starting with {@code q}, and
+     * ingredient names starting with it, most popular first.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        SuggestionsDto suggestions = recipeService.suggest(q, limit);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Suggestions retrieved successfully", suggestions));
+    }
+
+    /**
+     * Imports recipes owned by the caller from an NDJSON (one recipe object per line) or CSV
+     * (header row naming title, description, ingredients and steps) body. Invalid records
+     * are skipped and reported by line number.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ApiResponse> importRecipes(
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+
+        RecipeBulkService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)
+                ? RecipeBulkService.Format.CSV : RecipeBulkService.Format.NDJSON;
+        ImportResult result = recipeBulkService.importRecipes(request.getInputStream(), format, principal.getId());
+
+        return ResponseEntity.ok(new ApiResponse(result.getFailed() == 0,
+                "Imported " + result.getImported() + " recipes, " + result.getFailed() + " failed", result));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecipes(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+        RecipeBulkService.Format exportFormat = switch (format.toLowerCase()) {
+            case "ndjson" -> RecipeBulkService.Format.NDJSON;
+            case "csv" -> RecipeBulkService.Format.CSV;
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+
+        AsyncTimeoutConfig.extendTimeout(request, exportTimeout);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == RecipeBulkService.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recipes."
+                        + format.toLowerCase() + "\"")
+                .body(out -> recipeBulkService.exportRecipes(out, exportFormat));
+    }
+
+    /**
+     * Ranks recipes by how much of their ingredient list the pantry covers, e.g.
+     * {@code ?pantry=eggs,flour,milk}. {@code maxMissing} drops recipes needing more than
+     * that many other ingredients.
+     */
+    @GetMapping("/what-can-i-cook")
+    public ResponseEntity<ApiResponse> whatCanICook(
+            @RequestParam List<String> pantry,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Integer maxMissing) {
+
+        List<PantryMatchDto> matches = recipeService.findByPantry(pantry, limit, maxMissing);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Pantry matches retrieved successfully", matches));
+    }
+
+    @GetMapping("/top-rated")
+    public ResponseEntity<ApiResponse> getTopRatedRecipes(@RequestParam(defaultValue = "10") int limit) {
+        List<RecipeDto> recipes = recipeService.findTopRated(limit);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Top rated recipes retrieved successfully", recipes));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse> getTrendingRecipes(@RequestParam(defaultValue = "10") int limit) {
+        List<RecipeDto> recipes = recipeService.findTrending(limit);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Trending recipes retrieved successfully", recipes));
+    }
 
-        Page<Recipe> recipePage = recipeService.searchRecipes(keyword, pageable);
+    @GetMapping("/for-you")
+    public ResponseEntity<ApiResponse> getRecommendedRecipes(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(defaultValue = "20") int limit) {
 
-        List<RecipeDto> content = recipePage.getContent().stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
+        List<RecipeDto> recipes = recipeService.recommendFor(principal.getId(), limit);
 
-        return ResponseEntity.ok(new ApiResponse(true, "Search results", content));
+        return ResponseEntity.ok(new ApiResponse(true, "Recommended recipes retrieved successfully", recipes));
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<ApiResponse> getSimilarRecipes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<RecipeDto> recipes = recipeService.findSimilarRecipes(id, limit);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Similar recipes retrieved successfully", recipes));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getRecipeById(@PathVariable Long id) {
-        Recipe recipe = recipeService.findById(id);
-        RecipeDto recipeDto = recipeService.convertToDto(recipe);
+        RecipeDto recipeDto = recipeService.findSummaryById(id);
 
         return ResponseEntity.ok(new ApiResponse(true, "Recipe retrieved successfully", recipeDto));
     }
@@ -84,10 +216,9 @@ public class RecipeController {
     public ResponseEntity<ApiResponse> createRecipe(
             @Valid @RequestPart("recipe") RecipeDto recipeDto,
             @RequestPart(value = "image", required = false) MultipartFile image,
-            Authentication authentication) throws IOException {
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
 
-        User user = userService.findByEmail(authentication.getName());
-        Recipe recipe = recipeService.createRecipe(recipeDto, user.getId(), image);
+        Recipe recipe = recipeService.createRecipe(recipeDto, principal.getId(), image);
         RecipeDto createdRecipe = recipeService.convertToDto(recipe);
 
         return new ResponseEntity<>(
@@ -101,22 +232,37 @@ public class RecipeController {
             @PathVariable Long id,
             @Valid @RequestPart("recipe") RecipeDto recipeDto,
             @RequestPart(value = "image", required = false) MultipartFile image,
-            Authentication authentication) throws IOException {
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
 
-        User user = userService.findByEmail(authentication.getName());
-        Recipe recipe = recipeService.updateRecipe(id, recipeDto, user.getId(), image);
+        Recipe recipe = recipeService.updateRecipe(id, recipeDto, principal.getId(), image);
         RecipeDto updatedRecipe = recipeService.convertToDto(recipe);
 
         return ResponseEntity.ok(new ApiResponse(true, "Recipe updated successfully", updatedRecipe));
     }
 
+    /**
+     * Streams a raw image body (Content-Type image/jpeg, png, gif or webp) straight to
+     * disk, avoiding the multipart buffering of the create and update endpoints.
+     */
+    @PutMapping(value = "/{id}/image", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE, "image/webp"})
+    public ResponseEntity<ApiResponse> uploadRecipeImage(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+
+        Recipe recipe = recipeService.replaceImage(id, principal.getId(), request.getInputStream(), request.getContentLengthLong());
+        RecipeDto updatedRecipe = recipeService.convertToDto(recipe);
+
+        return ResponseEntity.ok(new ApiResponse(true, "Recipe image updated successfully", updatedRecipe));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse> deleteRecipe(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User user = userService.findByEmail(authentication.getName());
-        recipeService.deleteRecipe(id, user.getId());
+        recipeService.deleteRecipe(id, principal.getId());
 
         return ResponseEntity.ok(new ApiResponse(true, "Recipe deleted successfully"));
     }
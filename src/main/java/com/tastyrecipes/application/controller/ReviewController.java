@@ -3,14 +3,14 @@ package com.tastyrecipes.application.controller;
 import com.tastyrecipes.application.dto.ApiResponse;
 import com.tastyrecipes.application.dto.ReviewDto;
 import com.tastyrecipes.application.model.Review;
-import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.security.UserPrincipal;
+import com.tastyrecipes.application.service.ReviewIngestionService;
 import com.tastyrecipes.application.service.ReviewService;
-import com.tastyrecipes.application.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,7 +23,7 @@ public class ReviewController {
     private ReviewService reviewService;
 
     @Autowired
-    private UserService userService;
+    private ReviewIngestionService reviewIngestionService;
 
     @GetMapping
     public ResponseEntity<ApiResponse> getReviewsByRecipeId(@PathVariable Long recipeId) {
@@ -37,13 +37,17 @@ public class ReviewController {
     public ResponseEntity<ApiResponse> createReview(
             @PathVariable Long recipeId,
             @RequestBody ReviewDto reviewDto,  // Remove @Valid here
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User user = userService.findByEmail(authentication.getName());
         reviewDto.setRecipeId(recipeId); // Set recipeId from path variable
 
+        if (reviewIngestionService.isEnabled()) {
+            ReviewDto submitted = reviewIngestionService.submit(reviewDto, principal.getId(), principal.getName());
+            return new ResponseEntity<>(new ApiResponse(true, "Review created successfully", submitted), HttpStatus.CREATED);
+        }
+
         // Validate manually after setting recipeId
-        Review review = reviewService.createReview(reviewDto, user.getId());
+        Review review = reviewService.createReview(reviewDto, principal.getId());
         ReviewDto createdReview = reviewService.convertToDto(review);
 
         return new ResponseEntity<>(
@@ -57,12 +61,11 @@ public class ReviewController {
             @PathVariable Long recipeId,
             @PathVariable Long reviewId,
             @Valid @RequestBody ReviewDto reviewDto,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User user = userService.findByEmail(authentication.getName());
         reviewDto.setRecipeId(recipeId); // Ensure recipeId from path is used
 
-        Review review = reviewService.updateReview(reviewId, reviewDto, user.getId());
+        Review review = reviewService.updateReview(reviewId, reviewDto, principal.getId());
         ReviewDto updatedReview = reviewService.convertToDto(review);
 
         return ResponseEntity.ok(new ApiResponse(true, "Review updated successfully", updatedReview));
@@ -72,10 +75,9 @@ public class ReviewController {
     public ResponseEntity<ApiResponse> deleteReview(
             @PathVariable Long recipeId,
             @PathVariable Long reviewId,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User user = userService.findByEmail(authentication.getName());
-        reviewService.deleteReview(reviewId, user.getId());
+        reviewService.deleteReview(reviewId, principal.getId());
 
         return ResponseEntity.ok(new ApiResponse(true, "Review deleted successfully"));
     }
@@ -0,0 +1,77 @@
+package com.tastyrecipes.application.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows to the response as they are produced, either as NDJSON (one object per
+ * line) or inside the usual {@code ApiResponse} envelope with {@code data} written
+ * element by element. Only Jackson's output buffer is held in memory.
+ * <p>
+ * Whether more pages follow is known before the first row: the envelope carries
+ * {@code totalElements} and {@code last}, NDJSON responses an {@code X-Has-More} header.
+ */
+final class StreamingResponses {
+    static final String HAS_MORE_HEADER = "X-Has-More";
+
+    private StreamingResponses() {
+    }
+
+    static boolean wantsNdjson(String accept) {
+        return accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, boolean ndjson, String message,
+                                                            Pageable pageable, long totalElements,
+                                                            Consumer<Consumer<T>> producer) {
+        boolean last = pageable.getOffset() + pageable.getPageSize() >= totalElements;
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                if (ndjson) {
+                    // Lines are separated explicitly, not by Jackson's default root separator
+                    generator.setRootValueSeparator(null);
+                    producer.accept(row -> write(generator, row, true));
+                } else {
+                    generator.writeStartObject();
+                    generator.writeBooleanField("success", true);
+                    generator.writeStringField("message", message);
+                    generator.writeNumberField("totalElements", totalElements);
+                    generator.writeBooleanField("last", last);
+                    generator.writeArrayFieldStart("data");
+                    producer.accept(row -> write(generator, row, false));
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (ndjson) {
+            response.header(HAS_MORE_HEADER, String.valueOf(!last));
+        }
+        return response
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static void write(JsonGenerator generator, Object row, boolean lineDelimited) {
+        try {
+            generator.writeObject(row);
+            if (lineDelimited) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
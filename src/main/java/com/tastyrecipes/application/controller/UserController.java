@@ -1,31 +1,39 @@
 package com.tastyrecipes.application.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tastyrecipes.application.dto.ApiResponse;
 import com.tastyrecipes.application.dto.RecipeDto;
 import com.tastyrecipes.application.dto.ReviewDto;
 import com.tastyrecipes.application.dto.UserDto;
 import com.tastyrecipes.application.exception.UnauthorizedException;
-import com.tastyrecipes.application.model.Recipe;
-import com.tastyrecipes.application.model.Review;
 import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.security.UserPrincipal;
 import com.tastyrecipes.application.service.RecipeService;
 import com.tastyrecipes.application.service.ReviewService;
 import com.tastyrecipes.application.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final Set<String> RECIPE_SORT_FIELDS = Set.of("createdAt", "title", "id");
+    private static final Set<String> REVIEW_SORT_FIELDS = Set.of("createdAt", "rating", "id");
+
     @Autowired
     private UserService userService;
 
@@ -38,10 +46,15 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${users.collections.max-page-size:1000}")
+    private int maxPageSize;
+
     @GetMapping("/profile")
-    public ResponseEntity<ApiResponse> getUserProfile(Authentication authentication) {
-        User user = userService.findByEmail(authentication.getName());
-        UserDto userDto = userService.convertToDto(user);
+    public ResponseEntity<ApiResponse> getUserProfile(@AuthenticationPrincipal UserPrincipal principal) {
+        UserDto userDto = new UserDto(principal.getId(), principal.getName(), principal.getEmail());
 
         return ResponseEntity.ok(new ApiResponse(true, "User profile retrieved successfully", userDto));
     }
@@ -57,9 +70,9 @@ public class UserController {
     @PutMapping("/profile")
     public ResponseEntity<ApiResponse> updateProfile(
             @RequestBody UserDto userDto,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User currentUser = userService.findByEmail(authentication.getName());
+        User currentUser = userService.findById(principal.getId());
 
         // Validate and update name if provided
         if (userDto.getName() != null && !userDto.getName().trim().isEmpty()) {
@@ -107,9 +120,9 @@ public class UserController {
     @PutMapping("/change-password")
     public ResponseEntity<ApiResponse> changePassword(
             @RequestBody Map<String, String> passwordData,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal) {
 
-        User user = userService.findByEmail(authentication.getName());
+        User user = userService.findById(principal.getId());
 
         String currentPassword = passwordData.get("currentPassword");
         String newPassword = passwordData.get("newPassword");
@@ -145,51 +158,78 @@ public class UserController {
         }
     }
 
+    // Streamed straight from a database cursor; "size" is capped at users.collections.max-page-size
     @GetMapping("/recipes")
-    public ResponseEntity<ApiResponse> getUserRecipes(Authentication authentication) {
-        User user = userService.findByEmail(authentication.getName());
-        List<Recipe> recipes = user.getRecipes();
-
-        List<RecipeDto> recipeDtos = recipes.stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(new ApiResponse(true, "User recipes retrieved successfully", recipeDtos));
+    public ResponseEntity<StreamingResponseBody> getUserRecipes(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        Pageable pageable = pageable(page, size, sortBy, direction, RECIPE_SORT_FIELDS);
+        Long userId = principal.getId();
+
+        return StreamingResponses.<RecipeDto>stream(objectMapper, StreamingResponses.wantsNdjson(accept),
+                "User recipes retrieved successfully", pageable, recipeService.countByUserId(userId),
+                action -> recipeService.streamSummariesByUserId(userId, pageable, action));
     }
 
     @GetMapping("/{userId}/recipes")
-    public ResponseEntity<ApiResponse> getUserRecipesById(@PathVariable Long userId) {
-        User user = userService.findById(userId);
-        List<Recipe> recipes = user.getRecipes();
+    public ResponseEntity<StreamingResponseBody> getUserRecipesById(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        List<RecipeDto> recipeDtos = recipes.stream()
-                .map(recipeService::convertToDto)
-                .collect(Collectors.toList());
+        // Resolve the user before streaming so an unknown id is still a 404
+        User user = userService.findById(userId);
+        Pageable pageable = pageable(page, size, sortBy, direction, RECIPE_SORT_FIELDS);
 
-        return ResponseEntity.ok(new ApiResponse(true, "User recipes retrieved successfully", recipeDtos));
+        return StreamingResponses.<RecipeDto>stream(objectMapper, StreamingResponses.wantsNdjson(accept),
+                "User recipes retrieved successfully", pageable, recipeService.countByUserId(user.getId()),
+                action -> recipeService.streamSummariesByUserId(user.getId(), pageable, action));
     }
 
     @GetMapping("/reviews")
-    public ResponseEntity<ApiResponse> getUserReviews(Authentication authentication) {
-        User user = userService.findByEmail(authentication.getName());
-        List<Review> reviews = user.getReviews();
-
-        List<ReviewDto> reviewDtos = reviews.stream()
-                .map(reviewService::convertToDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<StreamingResponseBody> getUserReviews(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        Pageable pageable = pageable(page, size, sortBy, direction, REVIEW_SORT_FIELDS);
+        Long userId = principal.getId();
+
+        return StreamingResponses.<ReviewDto>stream(objectMapper, StreamingResponses.wantsNdjson(accept),
+                "User reviews retrieved successfully", pageable, reviewService.countByUserId(userId),
+                action -> reviewService.streamByUserId(userId, pageable, action));
+    }
 
-        return ResponseEntity.ok(new ApiResponse(true, "User reviews retrieved successfully", reviewDtos));
+    // Checked up front: once streaming starts, a bad sort field could only truncate the response
+    private Pageable pageable(int page, int size, String sortBy, String direction, Set<String> sortFields) {
+        if (!sortFields.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort by " + sortBy);
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
     }
 
     @DeleteMapping("/{userId}")
     public ResponseEntity<ApiResponse> deleteUser(
             @PathVariable Long userId,
-            Authentication authentication) {
-
-        User currentUser = userService.findByEmail(authentication.getName());
+            @AuthenticationPrincipal UserPrincipal principal) {
 
         // Only allow user to delete their own account
-        if (!currentUser.getId().equals(userId)) {
+        if (!principal.getId().equals(userId)) {
             throw new UnauthorizedException("You are not authorized to delete this user");
         }
 
@@ -1,6 +1,7 @@
 package com.tastyrecipes.application.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 
@@ -14,8 +15,18 @@ public class ApiResponse {
     private String message;
     private Object data;
 
+    // Only set by cursor-paginated endpoints
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public ApiResponse(boolean b, String message) {
         this.success=b;
         this.message=message;
     }
-}
\ No newline at end of file
+
+    public ApiResponse(boolean success, String message, Object data) {
+        this.success = success;
+        this.message = message;
+        this.data = data;
+    }
+}
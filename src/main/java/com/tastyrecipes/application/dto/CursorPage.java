@@ -0,0 +1,17 @@
+package com.tastyrecipes.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class CursorPage<T> {
+    private final List<T> content;
+
+    // Null when there are no further results
+    private final String nextCursor;
+}
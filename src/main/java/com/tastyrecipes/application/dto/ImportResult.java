@@ -0,0 +1,27 @@
+package com.tastyrecipes.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ImportResult {
+    private final int imported;
+    private final int failed;
+
+    // Capped at recipes.import.max-reported-errors; failed is always the full count
+    private final List<RecordError> errors;
+
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class RecordError {
+        // 1-based line on which the record starts
+        private final long line;
+        private final String message;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tastyrecipes.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class PantryMatchDto {
+    private final RecipeDto recipe;
+
+    // Share of the recipe's ingredients found in the pantry, 0 to 1
+    private final double coverage;
+    private final int matchedIngredients;
+    private final int totalIngredients;
+    private final List<String> missingIngredients;
+}
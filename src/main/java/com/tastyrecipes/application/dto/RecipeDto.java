@@ -27,13 +27,32 @@ public class RecipeDto {
     private String steps;
 
     private String imageUrl;
+    private String thumbnailUrl;
+    private String cardImageUrl;
+    private String fullImageUrl;
     private Long userId;
     private String userName;
     private LocalDateTime createdAt;
     private Double averageRating;
     private Integer reviewCount;
 
-
-
-
+    // Projection constructor for the listing queries in RecipeRepository
+    public RecipeDto(Long id, String title, String description, String ingredients, String steps, String imageUrl,
+                     String thumbnailUrl, String cardImageUrl, String fullImageUrl,
+                     Long userId, String userName, LocalDateTime createdAt, long ratingSum, int reviewCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.ingredients = ingredients;
+        this.steps = steps;
+        this.imageUrl = imageUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.cardImageUrl = cardImageUrl;
+        this.fullImageUrl = fullImageUrl;
+        this.userId = userId;
+        this.userName = userName;
+        this.createdAt = createdAt;
+        this.averageRating = reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+        this.reviewCount = reviewCount;
+    }
 }
\ No newline at end of file
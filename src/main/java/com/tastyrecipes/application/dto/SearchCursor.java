@@ -0,0 +1,75 @@
+package com.tastyrecipes.application.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in relevance-ordered search results: the (score, id) of the
+ * last match a client has seen. Scores move as recipes are indexed, so a walk follows
+ * the ranking as it stands when each page is read. An empty token means "start from
+ * the best match".
+ *
+ * <p>While the search index loads, results come from the database newest id first and
+ * the cursor is a fallback cursor holding only the id. The two kinds are marked apart so
+ * neither is read as a position in the other's ordering.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@ToString
+public class SearchCursor {
+    private static final SearchCursor START = new SearchCursor(Double.POSITIVE_INFINITY, Long.MAX_VALUE, false);
+    private static final String FALLBACK_PREFIX = "db|";
+
+    private final double score;
+    private final long id;
+    private final boolean fallback;
+
+    public static SearchCursor ranked(double score, long id) {
+        return new SearchCursor(score, id, false);
+    }
+
+    public static SearchCursor fallback(long id) {
+        return new SearchCursor(0.0, id, true);
+    }
+
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (decoded.startsWith(FALLBACK_PREFIX)) {
+                return fallback(Long.parseLong(decoded.substring(FALLBACK_PREFIX.length())));
+            }
+            int separator = decoded.lastIndexOf('|');
+            return ranked(
+                    Double.parseDouble(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public boolean isStart() {
+        return this == START;
+    }
+
+    /**
+     * Whether a match with this score and id comes after the position, in best-first order.
+     */
+    public boolean isBefore(double matchScore, long matchId) {
+        int byScore = Double.compare(score, matchScore);
+        return byScore != 0 ? byScore > 0 : id > matchId;
+    }
+
+    public String encode() {
+        String raw = fallback ? FALLBACK_PREFIX + id : score + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
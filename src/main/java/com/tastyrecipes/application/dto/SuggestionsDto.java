@@ -0,0 +1,17 @@
+package com.tastyrecipes.application.dto;
+
+import com.tastyrecipes.application.search.SuggestIndex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class SuggestionsDto {
+    // Recipe titles, each with the id of the most reviewed recipe bearing it
+    private final List<SuggestIndex.Suggestion> recipes;
+    private final List<SuggestIndex.Suggestion> ingredients;
+}
@@ -0,0 +1,32 @@
+package com.tastyrecipes.application.event;
+
+import com.tastyrecipes.application.model.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class RecipeChangedEvent {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long recipeId;
+
+    // Null for DELETED
+    @ToString.Exclude
+    private final Recipe recipe;
+
+    public static RecipeChangedEvent created(Recipe recipe) {
+        return new RecipeChangedEvent(Type.CREATED, recipe.getId(), recipe);
+    }
+
+    public static RecipeChangedEvent updated(Recipe recipe) {
+        return new RecipeChangedEvent(Type.UPDATED, recipe.getId(), recipe);
+    }
+
+    public static RecipeChangedEvent deleted(Long recipeId) {
+        return new RecipeChangedEvent(Type.DELETED, recipeId, null);
+    }
+}
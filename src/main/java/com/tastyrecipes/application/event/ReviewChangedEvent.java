@@ -0,0 +1,46 @@
+package com.tastyrecipes.application.event;
+
+import com.tastyrecipes.application.model.Review;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class ReviewChangedEvent {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long reviewId;
+    private final Long recipeId;
+
+    // The review's rating after the change; for DELETED, the rating that was removed
+    private final int rating;
+
+    // Only set for UPDATED
+    private final Integer previousRating;
+
+    private final LocalDateTime createdAt;
+
+    public static ReviewChangedEvent created(Review review) {
+        return new ReviewChangedEvent(Type.CREATED, review.getId(), review.getRecipe().getId(),
+                review.getRating(), null, review.getCreatedAt());
+    }
+
+    public static ReviewChangedEvent created(Long reviewId, Long recipeId, int rating, LocalDateTime createdAt) {
+        return new ReviewChangedEvent(Type.CREATED, reviewId, recipeId, rating, null, createdAt);
+    }
+
+    public static ReviewChangedEvent updated(Review review, int previousRating) {
+        return new ReviewChangedEvent(Type.UPDATED, review.getId(), review.getRecipe().getId(),
+                review.getRating(), previousRating, review.getCreatedAt());
+    }
+
+    public static ReviewChangedEvent deleted(Review review) {
+        return new ReviewChangedEvent(Type.DELETED, review.getId(), review.getRecipe().getId(),
+                review.getRating(), null, review.getCreatedAt());
+    }
+}
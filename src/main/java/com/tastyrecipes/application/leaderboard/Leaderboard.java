@@ -0,0 +1,59 @@
+package com.tastyrecipes.application.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Recipes ordered by score on a concurrent skip list: updates are O(log n) and the top
+ * K are read in O(K) without locking. Writers must be serialised by the caller.
+ */
+final class Leaderboard {
+
+    record Entry(long recipeId, double score) {
+    }
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparingLong(Entry::recipeId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private final Map<Long, Entry> current = new HashMap<>();
+
+    void put(long recipeId, double score) {
+        Entry entry = new Entry(recipeId, score);
+        Entry previous = current.put(recipeId, entry);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(entry);
+    }
+
+    void remove(long recipeId) {
+        Entry previous = current.remove(recipeId);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+    }
+
+    void clear() {
+        current.clear();
+        ranking.clear();
+    }
+
+    List<Entry> top(int limit) {
+        List<Entry> top = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Entry> entries = ranking.iterator();
+        while (top.size() < limit && entries.hasNext()) {
+            top.add(entries.next());
+        }
+        return top;
+    }
+
+    int size() {
+        return ranking.size();
+    }
+}
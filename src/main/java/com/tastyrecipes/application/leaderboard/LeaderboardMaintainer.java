@@ -0,0 +1,237 @@
+package com.tastyrecipes.application.leaderboard;
+
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReviewRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link RecipeLeaderboards} in step with the reviews table: loads the persisted
+ * snapshot at startup and recounts only recipes reviewed since, applies review changes
+ * after commit, and periodically writes a fresh snapshot. Edits and deletions made while
+ * the application was down are only caught by the periodic full rebuild.
+ */
+@Component
+public class LeaderboardMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardMaintainer.class);
+
+    // Catch-up window on restart, to cover clock skew between the app and the database
+    private static final long CATCH_UP_MARGIN_SECONDS = 60;
+
+    @Autowired
+    private RecipeLeaderboards leaderboards;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${leaderboards.snapshot-dir:leaderboards}")
+    private String snapshotDir;
+
+    @Value("${leaderboards.recount-batch-size:500}")
+    private int recountBatchSize;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // While a full load runs, changes are only noted here and the recipes recounted afterwards
+    private volatile boolean loading = true;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (!loadSnapshot()) {
+                rebuild();
+            }
+            leaderboards.markReady();
+            log.info("Leaderboards ready with {} recipes in {} ms", leaderboards.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            loading = false;
+            log.error("Failed to initialize leaderboards", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED -> leaderboards.addReview(event.getRecipeId(), event.getRating(), event.getCreatedAt());
+            case UPDATED -> leaderboards.changeRating(event.getRecipeId(), event.getPreviousRating(),
+                    event.getRating(), event.getCreatedAt());
+            case DELETED -> leaderboards.removeReview(event.getRecipeId(), event.getRating(), event.getCreatedAt());
+        }
+        dirty.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.getType() != RecipeChangedEvent.Type.DELETED) {
+            return;
+        }
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        leaderboards.removeRecipe(event.getRecipeId());
+        dirty.set(true);
+    }
+
+    /**
+     * Also re-ranks top rated against the latest site-wide mean.
+     */
+    @Scheduled(fixedDelayString = "${leaderboards.snapshot-interval:PT5M}")
+    public void flushIfDirty() {
+        if (leaderboards.isReady() && dirty.getAndSet(false)) {
+            leaderboards.rescoreTopRated();
+            writeSnapshot();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${leaderboards.rebuild-interval:PT24H}",
+            fixedDelayString = "${leaderboards.rebuild-interval:PT24H}")
+    public void scheduledRebuild() {
+        if (leaderboards.isReady()) {
+            rebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushIfDirty();
+    }
+
+    public void rebuild() {
+        loading = true;
+        try {
+            Map<Long, RecipeLeaderboards.RecipeStats> stats = new HashMap<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ReviewRepository.ReviewRating> ratings = reviewRepository.streamAllRatings()) {
+                    ratings.forEach(rating -> accumulate(stats, rating));
+                }
+            });
+            leaderboards.replaceAll(stats);
+        } finally {
+            finishLoading();
+        }
+        dirty.set(false);
+        writeSnapshot();
+    }
+
+    private boolean loadSnapshot() {
+        Path snapshotFile = snapshotFile();
+        if (!Files.exists(snapshotFile)) {
+            return false;
+        }
+
+        LeaderboardSnapshot.Snapshot snapshot;
+        try {
+            snapshot = LeaderboardSnapshot.read(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable leaderboard snapshot {}: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+        // Trending scores depend on the decay rate, so a changed half-life invalidates them
+        if (snapshot.decayPerSecond() != leaderboards.decayPerSecond()) {
+            log.info("Discarding leaderboard snapshot taken with a different trending half-life");
+            return false;
+        }
+
+        try {
+            leaderboards.replaceAll(snapshot.stats());
+            leaderboards.retainAll(new HashSet<>(recipeRepository.findAllIds()));
+
+            // Apply whatever was reviewed while we were down
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.createdAtMillis()),
+                    ZoneId.systemDefault()).minusSeconds(CATCH_UP_MARGIN_SECONDS);
+            List<Long> changed = reviewRepository.findRecipeIdsReviewedSince(since);
+            recount(changed);
+
+            if (!changed.isEmpty()) {
+                dirty.set(true);
+            }
+            log.info("Loaded leaderboard snapshot with {} recipes, {} recounted since snapshot",
+                    snapshot.stats().size(), changed.size());
+        } finally {
+            finishLoading();
+        }
+        return true;
+    }
+
+    private void finishLoading() {
+        loading = false;
+        List<Long> changed = new ArrayList<>(changedWhileLoading);
+        changedWhileLoading.removeAll(changed);
+        if (!changed.isEmpty()) {
+            recount(changed);
+            dirty.set(true);
+        }
+    }
+
+    // Replaces each recipe's totals with a fresh count from the reviews table
+    private void recount(List<Long> recipeIds) {
+        for (int from = 0; from < recipeIds.size(); from += recountBatchSize) {
+            List<Long> batch = recipeIds.subList(from, Math.min(from + recountBatchSize, recipeIds.size()));
+            Map<Long, RecipeLeaderboards.RecipeStats> stats = new HashMap<>();
+            reviewRepository.findRatingsByRecipeIds(batch).forEach(rating -> accumulate(stats, rating));
+            for (Long recipeId : batch) {
+                leaderboards.replace(recipeId, stats.getOrDefault(recipeId, RecipeLeaderboards.RecipeStats.NONE));
+            }
+        }
+    }
+
+    private void accumulate(Map<Long, RecipeLeaderboards.RecipeStats> stats, ReviewRepository.ReviewRating rating) {
+        RecipeLeaderboards.RecipeStats current = stats.getOrDefault(rating.getRecipeId(),
+                RecipeLeaderboards.RecipeStats.NONE);
+        stats.put(rating.getRecipeId(), leaderboards.accumulate(current, rating.getRating(), rating.getCreatedAt()));
+    }
+
+    private void writeSnapshot() {
+        long snapshotAt = System.currentTimeMillis();
+        try {
+            LeaderboardSnapshot.write(snapshotFile(), snapshotAt, leaderboards.decayPerSecond(),
+                    leaderboards.snapshot());
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Failed to write leaderboard snapshot", e);
+        }
+    }
+
+    private Path snapshotFile() {
+        return Paths.get(snapshotDir).resolve("leaderboards.snap");
+    }
+}
@@ -0,0 +1,86 @@
+package com.tastyrecipes.application.leaderboard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk copy of the leaderboards' per-recipe totals. Both rankings are derived from
+ * them on load.
+ *
+ * Layout: magic, version, snapshot time, decay rate, recipe count, then per recipe its
+ * id, rating sum, review count and log-space trending score, followed by a CRC32.
+ */
+final class LeaderboardSnapshot {
+
+    private static final int MAGIC = 0x524C4253; // "RLBS"
+    private static final int VERSION = 1;
+
+    record Snapshot(long createdAtMillis, double decayPerSecond, Map<Long, RecipeLeaderboards.RecipeStats> stats) {
+    }
+
+    private LeaderboardSnapshot() {
+    }
+
+    static void write(Path file, long createdAtMillis, double decayPerSecond,
+                      Map<Long, RecipeLeaderboards.RecipeStats> stats) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAtMillis);
+            out.writeDouble(decayPerSecond);
+            out.writeInt(stats.size());
+            for (Map.Entry<Long, RecipeLeaderboards.RecipeStats> entry : stats.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeLong(entry.getValue().ratingSum());
+                out.writeInt(entry.getValue().reviewCount());
+                out.writeDouble(entry.getValue().trendLog());
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Snapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported leaderboard snapshot: " + file);
+            }
+
+            long createdAtMillis = in.readLong();
+            double decayPerSecond = in.readDouble();
+            int count = in.readInt();
+
+            Map<Long, RecipeLeaderboards.RecipeStats> stats = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                long recipeId = in.readLong();
+                stats.put(recipeId, new RecipeLeaderboards.RecipeStats(in.readLong(), in.readInt(), in.readDouble()));
+            }
+
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Leaderboard snapshot checksum mismatch: " + file);
+            }
+            return new Snapshot(createdAtMillis, decayPerSecond, stats);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.tastyrecipes.application.leaderboard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory "top rated" and "trending" leaderboards over recipes with at least one
+ * review.
+ *
+ * <p>Top rated ranks by Bayesian average, {@code (C * m + sum) / (C + n)}: a recipe's
+ * mean pulled towards the site-wide mean {@code m} with the weight of {@code C}
+ * reviews, so a single five-star review does not beat hundreds of fours. {@code m} is
+ * only refreshed by {@link #rescoreTopRated()}, which keeps every score comparable.
+ *
+ * <p>Trending sums each review's rating decayed exponentially by age. Every score decays
+ * at the same rate, so the ranking only changes when reviews do; scores are kept as
+ * {@code log(sum of rating * e^(lambda * t))} over review times {@code t}, which never
+ * needs rescaling and converts back to the decayed value on read.
+ */
+@Component
+public class RecipeLeaderboards {
+
+    public record ScoredRecipe(long recipeId, double score) {
+    }
+
+    /**
+     * A recipe's review totals and log-space trending score.
+     */
+    record RecipeStats(long ratingSum, int reviewCount, double trendLog) {
+        static final RecipeStats NONE = new RecipeStats(0L, 0, Double.NEGATIVE_INFINITY);
+    }
+
+    private final double priorWeight;
+    private final double decayPerSecond;
+
+    private final Leaderboard topRated = new Leaderboard();
+    private final Leaderboard trending = new Leaderboard();
+
+    // Guarded by this
+    private final Map<Long, RecipeStats> stats = new HashMap<>();
+    private long totalRatingSum;
+    private long totalReviewCount;
+    private double priorMean;
+
+    private volatile boolean ready;
+
+    public RecipeLeaderboards(@Value("${leaderboards.top-rated.prior-weight:10}") double priorWeight,
+                              @Value("${leaderboards.trending.half-life:P3D}") Duration halfLife) {
+        this.priorWeight = priorWeight;
+        this.decayPerSecond = Math.log(2) / halfLife.toSeconds();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    double decayPerSecond() {
+        return decayPerSecond;
+    }
+
+    public List<ScoredRecipe> topRated(int limit) {
+        List<ScoredRecipe> results = new ArrayList<>(limit);
+        for (Leaderboard.Entry entry : topRated.top(limit)) {
+            results.add(new ScoredRecipe(entry.recipeId(), entry.score()));
+        }
+        return results;
+    }
+
+    /**
+     * The most-reviewed recipes of late, with scores decayed to the current time.
+     */
+    public List<ScoredRecipe> trending(int limit) {
+        double now = decayPerSecond * epochSeconds(LocalDateTime.now());
+        List<ScoredRecipe> results = new ArrayList<>(limit);
+        for (Leaderboard.Entry entry : trending.top(limit)) {
+            results.add(new ScoredRecipe(entry.recipeId(), Math.exp(entry.score() - now)));
+        }
+        return results;
+    }
+
+    synchronized void addReview(long recipeId, int rating, LocalDateTime createdAt) {
+        RecipeStats current = stats.getOrDefault(recipeId, RecipeStats.NONE);
+        put(recipeId, new RecipeStats(current.ratingSum() + rating, current.reviewCount() + 1,
+                logAdd(current.trendLog(), trendTerm(rating, createdAt))));
+    }
+
+    synchronized void removeReview(long recipeId, int rating, LocalDateTime createdAt) {
+        RecipeStats current = stats.get(recipeId);
+        if (current == null) {
+            return;
+        }
+        put(recipeId, new RecipeStats(current.ratingSum() - rating, current.reviewCount() - 1,
+                logSubtract(current.trendLog(), trendTerm(rating, createdAt))));
+    }
+
+    synchronized void changeRating(long recipeId, int previousRating, int rating, LocalDateTime createdAt) {
+        RecipeStats current = stats.get(recipeId);
+        if (current == null) {
+            return;
+        }
+        double trendLog = logAdd(logSubtract(current.trendLog(), trendTerm(previousRating, createdAt)),
+                trendTerm(rating, createdAt));
+        put(recipeId, new RecipeStats(current.ratingSum() - previousRating + rating, current.reviewCount(), trendLog));
+    }
+
+    synchronized void removeRecipe(long recipeId) {
+        put(recipeId, RecipeStats.NONE);
+    }
+
+    /**
+     * Replaces one recipe's totals, e.g. after recounting it from the database.
+     */
+    synchronized void replace(long recipeId, RecipeStats recipeStats) {
+        put(recipeId, recipeStats);
+    }
+
+    synchronized void replaceAll(Map<Long, RecipeStats> all) {
+        stats.clear();
+        topRated.clear();
+        trending.clear();
+        totalRatingSum = 0;
+        totalReviewCount = 0;
+        all.forEach(this::put);
+        rescoreTopRated();
+    }
+
+    synchronized void retainAll(Set<Long> recipeIds) {
+        for (Long recipeId : List.copyOf(stats.keySet())) {
+            if (!recipeIds.contains(recipeId)) {
+                put(recipeId, RecipeStats.NONE);
+            }
+        }
+    }
+
+    /**
+     * Re-ranks top rated against the current site-wide mean. O(n log n).
+     */
+    synchronized void rescoreTopRated() {
+        priorMean = totalReviewCount > 0 ? (double) totalRatingSum / totalReviewCount : 0.0;
+        stats.forEach((recipeId, recipeStats) -> topRated.put(recipeId, bayesianAverage(recipeStats)));
+    }
+
+    synchronized Map<Long, RecipeStats> snapshot() {
+        return new HashMap<>(stats);
+    }
+
+    RecipeStats accumulate(RecipeStats current, int rating, LocalDateTime createdAt) {
+        return new RecipeStats(current.ratingSum() + rating, current.reviewCount() + 1,
+                logAdd(current.trendLog(), trendTerm(rating, createdAt)));
+    }
+
+    public int size() {
+        return topRated.size();
+    }
+
+    private void put(long recipeId, RecipeStats recipeStats) {
+        RecipeStats previous = recipeStats.reviewCount() > 0 ? stats.put(recipeId, recipeStats) : stats.remove(recipeId);
+        if (previous != null) {
+            totalRatingSum -= previous.ratingSum();
+            totalReviewCount -= previous.reviewCount();
+        }
+        if (recipeStats.reviewCount() <= 0) {
+            topRated.remove(recipeId);
+            trending.remove(recipeId);
+            return;
+        }
+        totalRatingSum += recipeStats.ratingSum();
+        totalReviewCount += recipeStats.reviewCount();
+        topRated.put(recipeId, bayesianAverage(recipeStats));
+        trending.put(recipeId, recipeStats.trendLog());
+    }
+
+    private double bayesianAverage(RecipeStats recipeStats) {
+        return (priorWeight * priorMean + recipeStats.ratingSum()) / (priorWeight + recipeStats.reviewCount());
+    }
+
+    private double trendTerm(int rating, LocalDateTime createdAt) {
+        return Math.log(rating) + decayPerSecond * epochSeconds(createdAt);
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static double logAdd(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // Rounding can leave a tiny residue once every review is removed; the review count decides membership
+    private static double logSubtract(double a, double b) {
+        if (b >= a) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return a + Math.log1p(-Math.exp(b - a));
+    }
+}
@@ -0,0 +1,36 @@
+package com.tastyrecipes.application.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so
+ * {@link RequestMetricsFilter} can report queries per request. Statements issued
+ * outside a request are not counted, and neither are two kinds issued during one:
+ * JdbcTemplate statements (bulk import batches, write-behind review inserts), which
+ * never reach Hibernate, and whatever a {@code StreamingResponseBody} runs on the async
+ * executor after the filter has returned (the cursor-streamed user lists and the
+ * export). Those endpoints under-report.
+ */
+public class QueryCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
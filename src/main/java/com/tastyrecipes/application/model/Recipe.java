@@ -5,10 +5,14 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "recipes")
+@Table(name = "recipes", indexes = {
+        @Index(name = "idx_recipes_created_at_id", columnList = "created_at, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -31,9 +35,27 @@ public class Recipe {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String steps;
 
+    // Normalised names parsed from ingredients by IngredientParser, kept in step by RecipeService
+    @ElementCollection
+    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "recipe_id"),
+            indexes = @Index(name = "idx_recipe_ingredients_ingredient", columnList = "ingredient"))
+    @Column(name = "ingredient", nullable = false, length = 100)
+    @ToString.Exclude
+    private Set<String> ingredientNames = new HashSet<>();
+
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Resized variants of imageUrl, filled in asynchronously by ImageProcessingService
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Column(name = "card_image_url")
+    private String cardImageUrl;
+
+    @Column(name = "full_image_url")
+    private String fullImageUrl;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -41,26 +63,40 @@ public class Recipe {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Review> reviews = new ArrayList<>();
 
+    // Running rating aggregates maintained by ReviewService, so listings never load reviews.
+    // Only the repository's UPDATE statements write them: flushing an edited recipe must not
+    // overwrite an increment committed since the recipe was loaded.
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum;
+
+    @Column(name = "review_count", nullable = false, updatable = false)
+    private int reviewCount;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
 
 
 //     Helper method to calculate average rating
     public double getAverageRating() {
-        if (reviews.isEmpty()) {
+        if (reviewCount <= 0) {
             return 0.0;
         }
 
-        double sum = reviews.stream()
-                .mapToInt(Review::getRating)
-                .sum();
-
-        return sum / reviews.size();
+        return (double) ratingSum / reviewCount;
     }
 }
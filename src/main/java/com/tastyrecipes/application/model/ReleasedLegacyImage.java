@@ -0,0 +1,29 @@
+package com.tastyrecipes.application.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image from before content addressing, stored directly in the upload directory,
+ * that some recipe stopped pointing at. Only these files are ever considered for
+ * collection; {@code fileName} is the name within the upload directory.
+ */
+@Entity
+@Table(name = "released_legacy_images", indexes = {
+        @Index(name = "idx_released_legacy_images_released_at", columnList = "released_at")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ReleasedLegacyImage {
+    @Id
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "released_at", nullable = false)
+    private LocalDateTime releasedAt;
+}
@@ -0,0 +1,48 @@
+package com.tastyrecipes.application.recommend;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serves "similar recipes" and per-user recommendations from the latest
+ * {@link RecommendationModel}. Models are immutable and swapped in whole, so reads take
+ * no locks; recipes and reviews added since the last build are picked up by the next.
+ */
+@Component
+public class RecommendationIndex {
+
+    public record ScoredRecipe(long recipeId, double score) {
+    }
+
+    private volatile RecommendationModel model = RecommendationModel.EMPTY;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    void replace(RecommendationModel model) {
+        this.model = model;
+        this.ready = true;
+    }
+
+    /**
+     * Up to {@code limit} recipes most similar to the given one, most similar first.
+     */
+    public List<ScoredRecipe> similar(long recipeId, int limit) {
+        return model.similar(recipeId, limit);
+    }
+
+    /**
+     * Up to {@code limit} recipes the user has not reviewed, best match first. Empty for
+     * users without reviews in the current model.
+     */
+    public List<ScoredRecipe> recommendFor(long userId, int limit) {
+        return model.recommendFor(userId, limit);
+    }
+
+    public int size() {
+        return model.recipeCount();
+    }
+}
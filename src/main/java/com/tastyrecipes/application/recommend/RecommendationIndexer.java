@@ -0,0 +1,70 @@
+package com.tastyrecipes.application.recommend;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Periodically rebuilds the {@link RecommendationIndex} from the reviews table. The
+ * table is read once in a single forward pass straight into primitive arrays, and the
+ * similarity computation runs on a dedicated fork-join pool so it never competes with
+ * the common pool used by request handling.
+ */
+@Component
+public class RecommendationIndexer {
+    private static final Logger log = LoggerFactory.getLogger(RecommendationIndexer.class);
+
+    private static final String REVIEWS_SQL = "SELECT user_id, recipe_id, rating FROM reviews";
+
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${recommendations.neighbors:50}")
+    private int neighbors;
+
+    @Value("${recommendations.shrinkage:10}")
+    private float shrinkage;
+
+    @Value("${recommendations.fetch-size:1000}")
+    private int fetchSize;
+
+    private final ForkJoinPool pool;
+
+    public RecommendationIndexer(@Value("${recommendations.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.initial-delay:PT30S}",
+            fixedDelayString = "${recommendations.interval:PT1H}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+
+        RecommendationModelBuilder builder = new RecommendationModelBuilder();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REVIEWS_SQL);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getLong(2), rs.getInt(3)));
+
+        RecommendationModel model = builder.build(neighbors, shrinkage, pool);
+        recommendationIndex.replace(model);
+        log.info("Recommendation index rebuilt from {} reviews: {} recipes, {} neighbour links in {} ms",
+                builder.size(), model.recipeCount(), model.neighborCount(), System.currentTimeMillis() - startedAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
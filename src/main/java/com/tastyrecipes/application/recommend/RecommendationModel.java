@@ -0,0 +1,129 @@
+package com.tastyrecipes.application.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable item-to-item similarity index plus each user's rating history, held in
+ * primitive arrays. Recipes and users are addressed by their position in the sorted id
+ * arrays; neighbours and histories are stored CSR-style, one offsets array per side.
+ */
+final class RecommendationModel {
+
+    static final RecommendationModel EMPTY = new RecommendationModel(new long[0], new int[1], new int[0],
+            new float[0], new long[0], new int[1], new int[0], new float[0], 0L);
+
+    private final long[] recipeIds;
+    private final int[] neighborOffsets;
+    private final int[] neighbors;
+    private final float[] similarities;
+
+    private final long[] userIds;
+    private final int[] historyOffsets;
+    // Recipe positions in ascending order per user, with the rating minus the user's mean
+    private final int[] historyRecipes;
+    private final float[] historyWeights;
+
+    private final long builtAtMillis;
+
+    RecommendationModel(long[] recipeIds, int[] neighborOffsets, int[] neighbors, float[] similarities,
+                        long[] userIds, int[] historyOffsets, int[] historyRecipes, float[] historyWeights,
+                        long builtAtMillis) {
+        this.recipeIds = recipeIds;
+        this.neighborOffsets = neighborOffsets;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.userIds = userIds;
+        this.historyOffsets = historyOffsets;
+        this.historyRecipes = historyRecipes;
+        this.historyWeights = historyWeights;
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    int recipeCount() {
+        return recipeIds.length;
+    }
+
+    int neighborCount() {
+        return neighbors.length;
+    }
+
+    long builtAtMillis() {
+        return builtAtMillis;
+    }
+
+    List<RecommendationIndex.ScoredRecipe> similar(long recipeId, int limit) {
+        int recipe = Arrays.binarySearch(recipeIds, recipeId);
+        if (recipe < 0) {
+            return List.of();
+        }
+        int from = neighborOffsets[recipe];
+        int to = Math.min(neighborOffsets[recipe + 1], from + limit);
+        List<RecommendationIndex.ScoredRecipe> results = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            results.add(new RecommendationIndex.ScoredRecipe(recipeIds[neighbors[i]], similarities[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Scores every neighbour of the user's rated recipes by the sum of similarity times
+     * the user's mean-centred rating, so recipes near liked ones rise and recipes near
+     * disliked ones sink. Recipes the user already rated are left out.
+     */
+    List<RecommendationIndex.ScoredRecipe> recommendFor(long userId, int limit) {
+        int user = Arrays.binarySearch(userIds, userId);
+        if (user < 0) {
+            return List.of();
+        }
+        int historyFrom = historyOffsets[user];
+        int historyTo = historyOffsets[user + 1];
+
+        int candidates = 0;
+        for (int h = historyFrom; h < historyTo; h++) {
+            candidates += neighborOffsets[historyRecipes[h] + 1] - neighborOffsets[historyRecipes[h]];
+        }
+
+        // Each candidate is (neighbour position << 32 | contribution slot); sorting groups a neighbour's contributions
+        long[] keys = new long[candidates];
+        float[] contributions = new float[candidates];
+        int slot = 0;
+        for (int h = historyFrom; h < historyTo; h++) {
+            float weight = historyWeights[h];
+            if (weight == 0f) {
+                continue;
+            }
+            int recipe = historyRecipes[h];
+            for (int i = neighborOffsets[recipe]; i < neighborOffsets[recipe + 1]; i++) {
+                contributions[slot] = weight * similarities[i];
+                keys[slot] = (long) neighbors[i] << 32 | slot;
+                slot++;
+            }
+        }
+        Arrays.sort(keys, 0, slot);
+
+        TopK best = new TopK(limit);
+        int i = 0;
+        while (i < slot) {
+            int neighbor = (int) (keys[i] >>> 32);
+            float score = 0f;
+            while (i < slot && (int) (keys[i] >>> 32) == neighbor) {
+                score += contributions[(int) keys[i]];
+                i++;
+            }
+            if (score > 0f && Arrays.binarySearch(historyRecipes, historyFrom, historyTo, neighbor) < 0) {
+                best.offer(neighbor, score);
+            }
+        }
+
+        int[] ids = new int[best.size()];
+        float[] scores = new float[best.size()];
+        int count = best.drainDescending(ids, scores, 0);
+        List<RecommendationIndex.ScoredRecipe> results = new ArrayList<>(count);
+        for (int r = 0; r < count; r++) {
+            results.add(new RecommendationIndex.ScoredRecipe(recipeIds[ids[r]], scores[r]));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,214 @@
+package com.tastyrecipes.application.recommend;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds a {@link RecommendationModel} from (user, recipe, rating) triples.
+ *
+ * <p>Similarity is adjusted cosine: ratings are centred on each user's mean, so a
+ * generous and a harsh reviewer agree when they rank recipes the same way. It is
+ * shrunk by {@code n / (n + shrinkage)} for {@code n} co-raters, so pairs backed by
+ * one or two reviews do not outrank well-supported ones. Only pairs that share a
+ * reviewer are ever visited: each recipe walks its reviewers' histories, accumulating
+ * dot products in a dense scratch array. Recipes are split across a fork-join pool and
+ * keep only their {@code k} most similar positive neighbours.
+ */
+final class RecommendationModelBuilder {
+
+    private static final int MIN_LEAF_SIZE = 64;
+
+    private long[] users = new long[1024];
+    private long[] recipes = new long[1024];
+    private byte[] ratings = new byte[1024];
+    private int size;
+
+    void add(long userId, long recipeId, int rating) {
+        if (size == users.length) {
+            int capacity = size * 2;
+            users = Arrays.copyOf(users, capacity);
+            recipes = Arrays.copyOf(recipes, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+        }
+        users[size] = userId;
+        recipes[size] = recipeId;
+        ratings[size] = (byte) rating;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    RecommendationModel build(int k, float shrinkage, ForkJoinPool pool) {
+        long[] recipeIds = distinctSorted(recipes, size);
+        long[] userIds = distinctSorted(users, size);
+        int recipeCount = recipeIds.length;
+        int userCount = userIds.length;
+
+        int[] recipeOf = new int[size];
+        int[] userOf = new int[size];
+        double[] ratingSums = new double[userCount];
+        int[] userCounts = new int[userCount];
+        int[] recipeCounts = new int[recipeCount];
+        for (int i = 0; i < size; i++) {
+            recipeOf[i] = Arrays.binarySearch(recipeIds, recipes[i]);
+            userOf[i] = Arrays.binarySearch(userIds, users[i]);
+            ratingSums[userOf[i]] += ratings[i];
+            userCounts[userOf[i]]++;
+            recipeCounts[recipeOf[i]]++;
+        }
+
+        float[] centred = new float[size];
+        for (int i = 0; i < size; i++) {
+            centred[i] = (float) (ratings[i] - ratingSums[userOf[i]] / userCounts[userOf[i]]);
+        }
+
+        // User rows (histories) and recipe columns of the centred rating matrix
+        int[] userOffsets = offsets(userCounts);
+        int[] recipeOffsets = offsets(recipeCounts);
+        int[] userRecipes = new int[size];
+        float[] userValues = new float[size];
+        int[] recipeUsers = new int[size];
+        float[] recipeValues = new float[size];
+        int[] recipeFill = Arrays.copyOf(recipeOffsets, recipeCount);
+        for (int i = 0; i < size; i++) {
+            int r = recipeFill[recipeOf[i]]++;
+            recipeUsers[r] = userOf[i];
+            recipeValues[r] = centred[i];
+        }
+        // Filled column by column, so each user's history comes out in ascending recipe order
+        int[] userFill = Arrays.copyOf(userOffsets, userCount);
+        for (int recipe = 0; recipe < recipeCount; recipe++) {
+            for (int r = recipeOffsets[recipe]; r < recipeOffsets[recipe + 1]; r++) {
+                int u = userFill[recipeUsers[r]]++;
+                userRecipes[u] = recipe;
+                userValues[u] = recipeValues[r];
+            }
+        }
+
+        float[] norms = new float[recipeCount];
+        for (int recipe = 0; recipe < recipeCount; recipe++) {
+            double sum = 0;
+            for (int r = recipeOffsets[recipe]; r < recipeOffsets[recipe + 1]; r++) {
+                sum += (double) recipeValues[r] * recipeValues[r];
+            }
+            norms[recipe] = (float) Math.sqrt(sum);
+        }
+
+        int[][] topNeighbors = new int[recipeCount][];
+        float[][] topSimilarities = new float[recipeCount][];
+        // Every leaf allocates scratch arrays sized to the recipe count, so aim for a few leaves per worker
+        int leafSize = Math.max(MIN_LEAF_SIZE, recipeCount / (pool.getParallelism() * 8));
+        Matrix matrix = new Matrix(userOffsets, userRecipes, userValues, recipeOffsets, recipeUsers, recipeValues,
+                norms, k, shrinkage, leafSize, topNeighbors, topSimilarities);
+        pool.invoke(new NeighborTask(matrix, 0, recipeCount));
+
+        int[] neighborOffsets = new int[recipeCount + 1];
+        for (int recipe = 0; recipe < recipeCount; recipe++) {
+            neighborOffsets[recipe + 1] = neighborOffsets[recipe] + topNeighbors[recipe].length;
+        }
+        int[] neighbors = new int[neighborOffsets[recipeCount]];
+        float[] similarities = new float[neighbors.length];
+        for (int recipe = 0; recipe < recipeCount; recipe++) {
+            System.arraycopy(topNeighbors[recipe], 0, neighbors, neighborOffsets[recipe], topNeighbors[recipe].length);
+            System.arraycopy(topSimilarities[recipe], 0, similarities, neighborOffsets[recipe],
+                    topSimilarities[recipe].length);
+        }
+
+        return new RecommendationModel(recipeIds, neighborOffsets, neighbors, similarities,
+                userIds, userOffsets, userRecipes, userValues, System.currentTimeMillis());
+    }
+
+    private record Matrix(int[] userOffsets, int[] userRecipes, float[] userValues,
+                          int[] recipeOffsets, int[] recipeUsers, float[] recipeValues,
+                          float[] norms, int k, float shrinkage, int leafSize,
+                          int[][] topNeighbors, float[][] topSimilarities) {
+    }
+
+    private static final class NeighborTask extends RecursiveAction {
+        private final Matrix matrix;
+        private final int from;
+        private final int to;
+
+        NeighborTask(Matrix matrix, int from, int to) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > matrix.leafSize()) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new NeighborTask(matrix, from, middle), new NeighborTask(matrix, middle, to));
+                return;
+            }
+
+            // Indexed by recipe position and reset after each recipe through the touched list
+            int recipeCount = matrix.norms().length;
+            float[] dots = new float[recipeCount];
+            int[] coRaters = new int[recipeCount];
+            int[] touched = new int[recipeCount];
+
+            for (int recipe = from; recipe < to; recipe++) {
+                int touchedCount = 0;
+                for (int r = matrix.recipeOffsets()[recipe]; r < matrix.recipeOffsets()[recipe + 1]; r++) {
+                    int user = matrix.recipeUsers()[r];
+                    float value = matrix.recipeValues()[r];
+                    for (int u = matrix.userOffsets()[user]; u < matrix.userOffsets()[user + 1]; u++) {
+                        int other = matrix.userRecipes()[u];
+                        if (other == recipe) {
+                            continue;
+                        }
+                        if (coRaters[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                        dots[other] += value * matrix.userValues()[u];
+                    }
+                }
+
+                TopK best = new TopK(matrix.k());
+                float norm = matrix.norms()[recipe];
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    float denominator = norm * matrix.norms()[other];
+                    if (denominator > 0f && dots[other] > 0f) {
+                        float similarity = dots[other] / denominator
+                                * coRaters[other] / (coRaters[other] + matrix.shrinkage());
+                        best.offer(other, similarity);
+                    }
+                    dots[other] = 0f;
+                    coRaters[other] = 0;
+                }
+
+                int[] neighbors = new int[best.size()];
+                float[] similarities = new float[best.size()];
+                best.drainDescending(neighbors, similarities, 0);
+                matrix.topNeighbors()[recipe] = neighbors;
+                matrix.topSimilarities()[recipe] = similarities;
+            }
+        }
+    }
+
+    private static long[] distinctSorted(long[] values, int length) {
+        long[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static int[] offsets(int[] counts) {
+        int[] offsets = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            offsets[i + 1] = offsets[i] + counts[i];
+        }
+        return offsets;
+    }
+}
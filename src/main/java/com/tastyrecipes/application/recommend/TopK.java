@@ -0,0 +1,92 @@
+package com.tastyrecipes.application.recommend;
+
+/**
+ * Keeps the {@code k} highest-scoring int ids offered to it, on a min-heap over parallel
+ * primitive arrays. Ties keep the lower id.
+ */
+final class TopK {
+
+    private final int[] ids;
+    private final float[] scores;
+    private int size;
+
+    TopK(int k) {
+        this.ids = new int[k];
+        this.scores = new float[k];
+    }
+
+    void offer(int id, float score) {
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (ids.length > 0 && isBetter(id, score, 0)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap into {@code outIds} and {@code outScores} from {@code offset},
+     * best first, and returns the number of entries written.
+     */
+    int drainDescending(int[] outIds, float[] outScores, int offset) {
+        int count = size;
+        while (size > 0) {
+            int last = offset + size - 1;
+            outIds[last] = ids[0];
+            outScores[last] = scores[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return count;
+    }
+
+    // Whether (id, score) ranks above the entry at position i
+    private boolean isBetter(int id, float score, int i) {
+        return score > scores[i] || score == scores[i] && id < ids[i];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(ids[parent], scores[parent], i)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && isBetter(ids[left], scores[left], right) ? right : left;
+            if (!isBetter(ids[i], scores[i], worst)) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
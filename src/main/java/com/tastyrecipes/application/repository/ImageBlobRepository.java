@@ -0,0 +1,38 @@
+package com.tastyrecipes.application.repository;
+
+import com.tastyrecipes.application.model.ImageBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // Registers a freshly stored file, or refreshes updatedAt so a pending collection skips it
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO image_blobs (hash, path, byte_size, ref_count, updated_at) " +
+            "VALUES (:hash, :path, :byteSize, 0, :now) " +
+            "ON DUPLICATE KEY UPDATE updated_at = VALUES(updated_at)", nativeQuery = true)
+    int touch(String hash, String path, long byteSize, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + :delta, b.updatedAt = :now WHERE b.hash = :hash")
+    int adjustReferences(String hash, int delta, LocalDateTime now);
+
+    @Query("SELECT b FROM ImageBlob b WHERE b.refCount <= 0 AND b.updatedAt < :cutoff ORDER BY b.updatedAt")
+    List<ImageBlob> findCollectable(LocalDateTime cutoff, Limit limit);
+
+    // Re-checks the condition so a blob referenced or touched since it was listed survives
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.hash = :hash AND b.refCount <= 0 AND b.updatedAt < :cutoff")
+    int deleteIfUnreferenced(String hash, LocalDateTime cutoff);
+}
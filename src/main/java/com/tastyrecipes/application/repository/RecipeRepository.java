@@ -1,21 +1,146 @@
 package com.tastyrecipes.application.repository;
 
+import com.tastyrecipes.application.dto.RecipeDto;
 import com.tastyrecipes.application.model.Recipe;
 import com.tastyrecipes.application.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+    // Listing projection: recipe columns, author name and rating aggregates in one statement
+    String SUMMARY_SELECT = "SELECT new com.tastyrecipes.application.dto.RecipeDto(" +
+            "r.id, r.title, r.description, r.ingredients, r.steps, r.imageUrl, " +
+            "r.thumbnailUrl, r.cardImageUrl, r.fullImageUrl, " +
+            "u.id, u.name, r.createdAt, r.ratingSum, r.reviewCount) FROM Recipe r JOIN r.user u";
+
+    String KEYWORD_FILTER = " WHERE r.title LIKE %:keyword% OR r.description LIKE %:keyword% OR r.ingredients LIKE %:keyword%";
+
+    // Keyset predicate and order for the newest-first feed, backed by idx_recipes_created_at_id
+    String BEFORE_CURSOR = "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))";
+    String NEWEST_FIRST = " ORDER BY r.createdAt DESC, r.id DESC";
+
     List<Recipe> findByUser(User user);
 
+    long countByUserId(Long userId);
+
     Page<Recipe> findAll(Pageable pageable);
 
-    @Query("SELECT r FROM Recipe r WHERE r.title LIKE %:keyword% OR r.description LIKE %:keyword% OR r.ingredients LIKE %:keyword%")
-    Page<Recipe> searchRecipes(String keyword, Pageable pageable);
+    // Read-only so cache misses can go to a replica; the cached service methods start no transaction
+    @Transactional(readOnly = true)
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(r) FROM Recipe r")
+    Page<RecipeDto> findAllSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + KEYWORD_FILTER, countQuery = "SELECT COUNT(r) FROM Recipe r" + KEYWORD_FILTER)
+    Page<RecipeDto> searchSummaries(String keyword, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SUMMARY_SELECT + " WHERE r.id = :id")
+    Optional<RecipeDto> findSummaryById(Long id);
+
+    @Query(SUMMARY_SELECT + " WHERE r.id IN :ids")
+    List<RecipeDto> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query(value = SUMMARY_SELECT + " WHERE r.id IN :ids", countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.id IN :ids")
+    Page<RecipeDto> findSummariesByIdIn(Collection<Long> ids, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE u.id = :userId ORDER BY r.createdAt DESC")
+    List<RecipeDto> findSummariesByUserId(Long userId);
+
+    // Forward-only cursor; the caller must consume it inside a transaction and close it
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "100"))
+    @Query(SUMMARY_SELECT + " WHERE u.id = :userId")
+    Stream<RecipeDto> streamSummariesByUserId(Long userId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE r.id > :afterId ORDER BY r.id")
+    List<RecipeDto> findSummariesAfterId(Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + " WHERE " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RecipeDto> findSummariesBefore(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + " WHERE (r.title LIKE %:keyword% OR r.description LIKE %:keyword% OR r.ingredients LIKE %:keyword%) AND "
+            + "r.id < :id ORDER BY r.id DESC")
+    List<RecipeDto> searchSummariesBeforeId(String keyword, Long id, Limit limit);
+
+    // Atomic in-place increment, so concurrent review writes never lose an update
+    @Modifying
+    @Query("UPDATE Recipe r SET r.ratingSum = r.ratingSum + :ratingDelta, r.reviewCount = r.reviewCount + :countDelta WHERE r.id = :recipeId")
+    int adjustRatingAggregates(Long recipeId, long ratingDelta, int countDelta);
+
+    @Modifying
+    @Query("UPDATE Recipe r SET r.ratingSum = :ratingSum, r.reviewCount = :reviewCount WHERE r.id = :recipeId")
+    int setRatingAggregates(Long recipeId, long ratingSum, int reviewCount);
+
+    // Matched on the file name, so a differently spelled upload-dir still counts; the unescaped
+    // LIKE wildcards in names can only match more paths, which keeps more files
+    @Query("SELECT COUNT(r) > 0 FROM Recipe r WHERE r.imageUrl LIKE CONCAT('%', :fileName) " +
+            "OR r.thumbnailUrl LIKE CONCAT('%', :fileName) OR r.cardImageUrl LIKE CONCAT('%', :fileName) " +
+            "OR r.fullImageUrl LIKE CONCAT('%', :fileName)")
+    boolean isImageFileReferenced(String fileName);
+
+    // Only applies while the recipe still points at the image the variants were made from
+    @Transactional
+    @Modifying
+    @Query("UPDATE Recipe r SET r.thumbnailUrl = :thumbnailUrl, r.cardImageUrl = :cardImageUrl, r.fullImageUrl = :fullImageUrl " +
+            "WHERE r.id = :recipeId AND r.imageUrl = :imageUrl")
+    int setImageVariants(Long recipeId, String imageUrl, String thumbnailUrl, String cardImageUrl, String fullImageUrl);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query("SELECT r FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Recipe> findBatchAfter(Long afterId, Limit limit);
+
+    @Query("SELECT r FROM Recipe r WHERE r.id IN :ids")
+    List<Recipe> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT r FROM Recipe r WHERE r.id > :afterId AND r.ingredientNames IS EMPTY ORDER BY r.id")
+    List<Recipe> findWithoutIngredientNamesAfter(Long afterId, Limit limit);
+
+    // Forward-only cursor; the caller must consume it inside a transaction and close it
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id AS recipeId, i AS ingredient FROM Recipe r JOIN r.ingredientNames i ORDER BY r.id")
+    Stream<RecipeIngredient> streamIngredientNames();
+
+    interface RecipeIngredient {
+        Long getRecipeId();
+        String getIngredient();
+    }
+
+    // Forward-only cursor; the caller must consume it inside a transaction and close it
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.id AS id, r.title AS title, r.ingredients AS ingredients, r.reviewCount AS reviewCount " +
+            "FROM Recipe r")
+    Stream<SuggestTerms> streamSuggestTerms();
+
+    interface SuggestTerms {
+        Long getId();
+        String getTitle();
+        String getIngredients();
+        int getReviewCount();
+    }
+
+    @Query("SELECT r FROM Recipe r WHERE r.updatedAt > :since")
+    List<Recipe> findUpdatedSince(LocalDateTime since);
+
+    @Query("SELECT r.id FROM Recipe r")
+    List<Long> findAllIds();
+
+    @Query(value = "SELECT id FROM recipes WHERE id IN (:recipeIds) FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(Collection<Long> recipeIds);
 }
@@ -0,0 +1,32 @@
+package com.tastyrecipes.application.repository;
+
+import com.tastyrecipes.application.model.ReleasedLegacyImage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReleasedLegacyImageRepository extends JpaRepository<ReleasedLegacyImage, String> {
+
+    // A later release restarts the grace period
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO released_legacy_images (file_name, released_at) VALUES (:fileName, :now) " +
+            "ON DUPLICATE KEY UPDATE released_at = VALUES(released_at)", nativeQuery = true)
+    int record(String fileName, LocalDateTime now);
+
+    @Query("SELECT i FROM ReleasedLegacyImage i WHERE i.releasedAt < :cutoff ORDER BY i.releasedAt")
+    List<ReleasedLegacyImage> findCollectable(LocalDateTime cutoff, Limit limit);
+
+    // Re-checks the cutoff so a file released again since it was listed waits another grace period
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReleasedLegacyImage i WHERE i.fileName = :fileName AND i.releasedAt < :cutoff")
+    int deleteIfReleasedBefore(String fileName, LocalDateTime cutoff);
+}
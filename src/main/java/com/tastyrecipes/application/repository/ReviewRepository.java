@@ -1,17 +1,62 @@
 package com.tastyrecipes.application.repository;
 
+import com.tastyrecipes.application.dto.ReviewDto;
 import com.tastyrecipes.application.model.Recipe;
 import com.tastyrecipes.application.model.Review;
 import com.tastyrecipes.application.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByRecipe(Recipe recipe);
     Optional<Review> findByUserAndRecipe(User user, Recipe recipe);
     boolean existsByUserAndRecipe(User user, Recipe recipe);
-}
\ No newline at end of file
+    boolean existsByUserIdAndRecipeId(Long userId, Long recipeId);
+    long countByUserId(Long userId);
+
+    // Forward-only cursor; the caller must consume it inside a transaction and close it
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT new com.tastyrecipes.application.dto.ReviewDto(r.id, r.recipe.id, u.id, u.name, r.rating, r.comment, r.createdAt) " +
+            "FROM Review r JOIN r.user u WHERE u.id = :userId")
+    Stream<ReviewDto> streamByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT r.recipe.id AS recipeId, SUM(r.rating) AS ratingSum, COUNT(r) AS reviewCount " +
+            "FROM Review r WHERE r.recipe.id IN :recipeIds GROUP BY r.recipe.id")
+    List<RatingAggregate> aggregateRatings(Collection<Long> recipeIds);
+
+    @Query("SELECT DISTINCT r.recipe.id FROM Review r WHERE r.createdAt >= :since")
+    List<Long> findRecipeIdsReviewedSince(LocalDateTime since);
+
+    @Query("SELECT r.recipe.id AS recipeId, r.rating AS rating, r.createdAt AS createdAt " +
+            "FROM Review r WHERE r.recipe.id IN :recipeIds")
+    List<ReviewRating> findRatingsByRecipeIds(Collection<Long> recipeIds);
+
+    // Forward-only cursor; the caller must consume it inside a transaction and close it
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.recipe.id AS recipeId, r.rating AS rating, r.createdAt AS createdAt FROM Review r")
+    Stream<ReviewRating> streamAllRatings();
+
+    interface ReviewRating {
+        Long getRecipeId();
+        Integer getRating();
+        LocalDateTime getCreatedAt();
+    }
+
+    interface RatingAggregate {
+        Long getRecipeId();
+        Long getRatingSum();
+        Long getReviewCount();
+    }
+}
@@ -0,0 +1,260 @@
+package com.tastyrecipes.application.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index from normalised ingredient name to the recipes using it.
+ * Recipes get dense slot numbers, reused after removal, so each bitmap is one bit per
+ * live recipe rather than per id. A pantry query adds the pantry's bitmaps into
+ * bit-sliced counters, 64 recipes per word operation, which yields how many of each
+ * recipe's ingredients the pantry covers without touching recipes that share none.
+ */
+@Component
+public class IngredientIndex {
+
+    public record PantryMatch(long recipeId, int matched, int total, List<String> missing) {
+        public double coverage() {
+            return (double) matched / total;
+        }
+    }
+
+    private static final Comparator<PantryMatch> WORST_FIRST = Comparator
+            .comparingDouble(PantryMatch::coverage)
+            .thenComparingInt(PantryMatch::matched)
+            .thenComparingLong(PantryMatch::recipeId);
+
+    private final Map<String, Integer> ingredientIds = new HashMap<>();
+    private final List<String> ingredientNames = new ArrayList<>();
+    // Ingredient id -> bitmap over slots
+    private long[][] bitmaps = new long[64][];
+    private final int[] noIngredients = new int[0];
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] recipeIds = new long[1024];
+    private int[][] slotIngredients = new int[1024][];
+    private int slotCount;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(long recipeId, Collection<String> ingredients) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+            if (ingredients.isEmpty()) {
+                return;
+            }
+
+            int slot = allocateSlot();
+            int[] ids = new int[ingredients.size()];
+            int count = 0;
+            for (String ingredient : new LinkedHashSet<>(ingredients)) {
+                int id = ingredientId(ingredient);
+                ids[count++] = id;
+                setBit(id, slot);
+            }
+            slots.put(recipeId, slot);
+            recipeIds[slot] = recipeId;
+            slotIngredients[slot] = count == ids.length ? ids : Arrays.copyOf(ids, count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ingredientIds.clear();
+            ingredientNames.clear();
+            bitmaps = new long[64][];
+            slots.clear();
+            recipeIds = new long[1024];
+            slotIngredients = new int[1024][];
+            slotCount = 0;
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes sharing at least one ingredient with the pantry, best covered first: by the
+     * share of the recipe's ingredients in the pantry, then by how many, then newest id.
+     * With {@code maxMissing} set, recipes needing more than that many extra ingredients
+     * are left out.
+     */
+    public List<PantryMatch> match(Collection<String> pantry, int limit, Integer maxMissing) {
+        lock.readLock().lock();
+        try {
+            List<long[]> pantryBitmaps = new ArrayList<>();
+            Set<Integer> pantryIds = new LinkedHashSet<>();
+            for (String ingredient : pantry) {
+                Integer id = ingredientIds.get(ingredient);
+                if (id != null && bitmaps[id] != null && pantryIds.add(id)) {
+                    pantryBitmaps.add(bitmaps[id]);
+                }
+            }
+            if (pantryBitmaps.isEmpty()) {
+                return List.of();
+            }
+
+            int words = 0;
+            for (long[] bitmap : pantryBitmaps) {
+                words = Math.max(words, bitmap.length);
+            }
+            // counters[k][w] holds bit k of the per-recipe match count for the 64 slots of word w
+            long[][] counters = new long[32 - Integer.numberOfLeadingZeros(pantryBitmaps.size())][words];
+            for (long[] bitmap : pantryBitmaps) {
+                for (int w = 0; w < bitmap.length; w++) {
+                    long carry = bitmap[w];
+                    for (int k = 0; carry != 0 && k < counters.length; k++) {
+                        long sum = counters[k][w] ^ carry;
+                        carry &= counters[k][w];
+                        counters[k][w] = sum;
+                    }
+                }
+            }
+
+            PriorityQueue<PantryMatch> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            for (int w = 0; w < words; w++) {
+                long candidates = 0;
+                for (long[] plane : counters) {
+                    candidates |= plane[w];
+                }
+                while (candidates != 0) {
+                    int bit = Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+
+                    int matched = 0;
+                    for (int k = 0; k < counters.length; k++) {
+                        matched |= (int) ((counters[k][w] >>> bit) & 1L) << k;
+                    }
+                    int slot = w * 64 + bit;
+                    int total = slotIngredients[slot].length;
+                    if (maxMissing != null && total - matched > maxMissing) {
+                        continue;
+                    }
+                    best.add(new PantryMatch(recipeIds[slot], matched, total, null));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<PantryMatch> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                PantryMatch match = best.poll();
+                results.add(new PantryMatch(match.recipeId(), match.matched(), match.total(),
+                        missing(slots.get(match.recipeId()), pantryIds)));
+            }
+            return results.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> missing(int slot, Set<Integer> pantryIds) {
+        List<String> missing = new ArrayList<>();
+        for (int id : slotIngredients[slot]) {
+            if (!pantryIds.contains(id)) {
+                missing.add(ingredientNames.get(id));
+            }
+        }
+        return missing;
+    }
+
+    private void removeInternal(long recipeId) {
+        Integer slot = slots.remove(recipeId);
+        if (slot == null) {
+            return;
+        }
+        for (int id : slotIngredients[slot]) {
+            clearBit(id, slot);
+        }
+        slotIngredients[slot] = noIngredients;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == recipeIds.length) {
+            recipeIds = Arrays.copyOf(recipeIds, slotCount * 2);
+            slotIngredients = Arrays.copyOf(slotIngredients, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    private int ingredientId(String ingredient) {
+        Integer id = ingredientIds.get(ingredient);
+        if (id == null) {
+            id = ingredientNames.size();
+            ingredientIds.put(ingredient, id);
+            ingredientNames.add(ingredient);
+            if (id == bitmaps.length) {
+                bitmaps = Arrays.copyOf(bitmaps, id * 2);
+            }
+        }
+        return id;
+    }
+
+    private void setBit(int id, int slot) {
+        int word = slot >>> 6;
+        long[] bitmap = bitmaps[id];
+        if (bitmap == null || bitmap.length <= word) {
+            bitmap = bitmap == null ? new long[word + 1] : Arrays.copyOf(bitmap, Math.max(word + 1, bitmap.length * 2));
+            bitmaps[id] = bitmap;
+        }
+        bitmap[word] |= 1L << slot;
+    }
+
+    private void clearBit(int id, int slot) {
+        long[] bitmap = bitmaps[id];
+        bitmap[slot >>> 6] &= ~(1L << slot);
+    }
+}
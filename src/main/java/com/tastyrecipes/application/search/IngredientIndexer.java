@@ -0,0 +1,141 @@
+package com.tastyrecipes.application.search;
+
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link IngredientIndex} in step with the recipe_ingredients table: fills the
+ * table for recipes saved before it existed, loads the index from it at startup and
+ * applies recipe changes after commit.
+ */
+@Component
+public class IngredientIndexer {
+    private static final Logger log = LoggerFactory.getLogger(IngredientIndexer.class);
+
+    @Autowired
+    private IngredientIndex ingredientIndex;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${ingredients.backfill-batch-size:500}")
+    private int batchSize;
+
+    // While the index loads, changes are only noted here and the recipes re-read afterwards
+    private volatile boolean loading = true;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            int backfilled = backfill();
+            load();
+            ingredientIndex.markReady();
+            log.info("Ingredient index ready with {} recipes ({} backfilled) in {} ms", ingredientIndex.size(),
+                    backfilled, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            loading = false;
+            log.error("Failed to initialize ingredient index", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        if (event.getType() == RecipeChangedEvent.Type.DELETED) {
+            ingredientIndex.remove(event.getRecipeId());
+        } else {
+            ingredientIndex.index(event.getRecipeId(), IngredientParser.parse(event.getRecipe().getIngredients()));
+        }
+    }
+
+    private int backfill() {
+        int backfilled = 0;
+        long afterId = 0L;
+        List<Recipe> batch;
+        while (!(batch = backfillBatch(afterId)).isEmpty()) {
+            backfilled += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        return backfilled;
+    }
+
+    private List<Recipe> backfillBatch(long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Recipe> recipes = recipeRepository.findWithoutIngredientNamesAfter(afterId, Limit.of(batchSize));
+            for (Recipe recipe : recipes) {
+                recipe.getIngredientNames().addAll(IngredientParser.parse(recipe.getIngredients()));
+            }
+            return recipes;
+        });
+    }
+
+    private void load() {
+        try {
+            ingredientIndex.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<RecipeRepository.RecipeIngredient> rows = recipeRepository.streamIngredientNames()) {
+                    // Rows arrive grouped by recipe
+                    Long recipeId = null;
+                    List<String> names = new ArrayList<>();
+                    Iterator<RecipeRepository.RecipeIngredient> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        RecipeRepository.RecipeIngredient row = iterator.next();
+                        if (!row.getRecipeId().equals(recipeId)) {
+                            if (recipeId != null) {
+                                ingredientIndex.index(recipeId, names);
+                            }
+                            recipeId = row.getRecipeId();
+                            names = new ArrayList<>();
+                        }
+                        names.add(row.getIngredient());
+                    }
+                    if (recipeId != null) {
+                        ingredientIndex.index(recipeId, names);
+                    }
+                }
+            });
+        } finally {
+            finishLoading();
+        }
+    }
+
+    private void finishLoading() {
+        loading = false;
+        List<Long> changed = new ArrayList<>(changedWhileLoading);
+        changedWhileLoading.removeAll(changed);
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            List<Long> batch = changed.subList(from, Math.min(from + batchSize, changed.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (Recipe recipe : recipeRepository.findByIdIn(batch)) {
+                ingredientIndex.index(recipe.getId(), IngredientParser.parse(recipe.getIngredients()));
+                missing.remove(recipe.getId());
+            }
+            missing.forEach(ingredientIndex::remove);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.tastyrecipes.application.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a free-text ingredient list into normalised ingredient names: one entry per
+ * line, comma, semicolon, "and" or "or", with quantities, units, preparation notes and
+ * parentheticals removed and each word singularised. "2 cups chopped tomatoes (ripe)"
+ * becomes "tomato". The same parsing is used for recipes and pantry queries.
+ */
+public final class IngredientParser {
+
+    public static final int MAX_LENGTH = 100;
+
+    private static final Set<String> UNITS = Set.of(
+            "cup", "tablespoon", "tbsp", "tbs", "teaspoon", "tsp", "g", "gram", "kg", "kilogram", "mg", "ml",
+            "l", "liter", "litre", "oz", "ounce", "lb", "lbs", "pound", "pinch", "dash", "can", "jar", "package",
+            "packet", "pack", "piece", "slice", "handful", "bunch", "stick", "sprig", "quart", "pint", "gallon",
+            "clove", "x");
+
+    private static final Set<String> IGNORED = Set.of(
+            "a", "an", "the", "of", "to", "for", "some", "about", "plus", "more", "extra", "optional", "taste",
+            "serving", "garnish", "chopped", "diced", "minced", "sliced", "grated", "shredded", "crushed",
+            "ground", "fresh", "freshly", "large", "small", "medium", "whole", "softened", "melted", "beaten",
+            "peeled", "cooked", "raw", "finely", "roughly", "thinly", "divided", "packed", "lightly", "halved",
+            "quartered", "cubed", "frozen", "thawed", "drained", "rinsed", "dried", "room", "temperature",
+            "cold", "warm", "hot", "boneless", "skinless", "into", "cut", "inch", "cm", "few", "each");
+
+    private IngredientParser() {
+    }
+
+    public static Set<String> parse(String ingredients) {
+        Set<String> names = new LinkedHashSet<>();
+        if (ingredients == null || ingredients.isEmpty()) {
+            return names;
+        }
+
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        int parentheses = 0;
+        for (int i = 0; i <= ingredients.length(); i++) {
+            char c = i < ingredients.length() ? ingredients.charAt(i) : '\n';
+            if (c == '(') {
+                parentheses++;
+            } else if (c == ')') {
+                parentheses = Math.max(0, parentheses - 1);
+            } else if (parentheses > 0 && c != '\n') {
+                continue;
+            }
+
+            if (Character.isLetter(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            boolean separator = c == '\n' || c == ',' || c == ';';
+            if (!word.isEmpty()) {
+                String w = word.toString();
+                word.setLength(0);
+                if (w.equals("and") || w.equals("or")) {
+                    separator = true;
+                } else {
+                    w = singular(w);
+                    if (!UNITS.contains(w) && !IGNORED.contains(w)) {
+                        words.add(w);
+                    }
+                }
+            }
+            if (separator) {
+                if (c == '\n') {
+                    parentheses = 0;
+                }
+                addName(names, words);
+            }
+        }
+        return names;
+    }
+
+    private static void addName(Set<String> names, List<String> words) {
+        if (!words.isEmpty()) {
+            String name = String.join(" ", words);
+            names.add(name.length() > MAX_LENGTH ? name.substring(0, MAX_LENGTH).trim() : name);
+            words.clear();
+        }
+    }
+
+    static String singular(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")
+                || word.endsWith("sses")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
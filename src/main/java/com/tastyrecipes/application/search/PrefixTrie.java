@@ -0,0 +1,265 @@
+package com.tastyrecipes.application.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Radix trie of weighted values, where every node also records the largest weight below
+ * it. Completing a prefix walks down to the prefix's node and then expands best-first,
+ * so the top few completions cost time proportional to the prefix and the results
+ * rather than to the number of keys under it.
+ *
+ * <p>Not thread-safe; {@link SuggestIndex} guards it with a read/write lock.
+ */
+final class PrefixTrie<T> {
+
+    record Entry<T>(String key, T value, long weight) {
+    }
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry<?>[] NO_ENTRIES = new Entry<?>[0];
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        Entry<?>[] entries = NO_ENTRIES;
+        long maxWeight = Long.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void recomputeMaxWeight() {
+            long max = Long.MIN_VALUE;
+            for (Entry<?> entry : entries) {
+                max = Math.max(max, entry.weight());
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private final Node root = new Node("");
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        root.children = NO_CHILDREN;
+        root.entries = NO_ENTRIES;
+        root.maxWeight = Long.MIN_VALUE;
+        size = 0;
+    }
+
+    void add(String key, T value, long weight) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.children = insertAt(node.children, -index - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge so the key ends at, or branches from, a new node
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[]{child};
+                split.maxWeight = child.maxWeight;
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+
+        node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+        node.entries[node.entries.length - 1] = new Entry<>(key, value, weight);
+        size++;
+        for (int p = path.size() - 1; p >= 0; p--) {
+            path.get(p).maxWeight = Math.max(path.get(p).maxWeight, weight);
+        }
+    }
+
+    /**
+     * Removes one entry for the value under exactly this key; returns whether one existed.
+     */
+    boolean remove(String key, T value) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            node = node.children[index];
+            if (!key.startsWith(node.label, i)) {
+                return false;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+
+        int entryIndex = -1;
+        for (int e = 0; e < node.entries.length; e++) {
+            if (node.entries[e].value().equals(value)) {
+                entryIndex = e;
+                break;
+            }
+        }
+        if (entryIndex < 0) {
+            return false;
+        }
+        node.entries = node.entries.length == 1 ? NO_ENTRIES : removeAt(node.entries, entryIndex);
+        size--;
+
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node current = path.get(p);
+            Node parent = path.get(p - 1);
+            int index = parent.childIndex(current.label.charAt(0));
+            if (current.entries.length == 0 && current.children.length == 0) {
+                parent.children = parent.children.length == 1 ? NO_CHILDREN : removeAt(parent.children, index);
+            } else if (current.entries.length == 0 && current.children.length == 1) {
+                // Merge a pass-through node into its only child to keep the trie compressed
+                Node child = current.children[0];
+                child.label = current.label + child.label;
+                parent.children[index] = child;
+            } else {
+                current.recomputeMaxWeight();
+            }
+        }
+        root.recomputeMaxWeight();
+        return true;
+    }
+
+    /**
+     * Entries whose key starts with the prefix, heaviest first; equal weights in key order.
+     * Lazy, so callers that skip duplicates can keep pulling until they have enough.
+     */
+    Iterator<Entry<T>> complete(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(i));
+            if (index < 0) {
+                return Collections.emptyIterator();
+            }
+            node = node.children[index];
+            int length = Math.min(node.label.length(), prefix.length() - i);
+            if (!node.label.regionMatches(0, prefix, i, length)) {
+                return Collections.emptyIterator();
+            }
+            i += node.label.length();
+        }
+        return new Completions(node);
+    }
+
+    /**
+     * Best-first expansion. A node is expanded before any entry of equal weight is
+     * returned, which brings every entry of that weight into the queue first and keeps
+     * the order exact.
+     */
+    private final class Completions implements Iterator<Entry<T>> {
+        private final PriorityQueue<Object> queue = new PriorityQueue<>(
+                Comparator.comparingLong(Completions::weight).reversed()
+                        .thenComparing(item -> item instanceof Entry<?> ? 1 : 0)
+                        .thenComparing(item -> item instanceof Entry<?> entry ? entry.key() : ""));
+        private Entry<T> next;
+
+        Completions(Node start) {
+            if (start.maxWeight != Long.MIN_VALUE) {
+                queue.add(start);
+            }
+        }
+
+        private static long weight(Object item) {
+            return item instanceof Node node ? node.maxWeight : ((Entry<?>) item).weight();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !queue.isEmpty()) {
+                Object item = queue.poll();
+                if (item instanceof Node node) {
+                    queue.addAll(Arrays.asList(node.entries));
+                    queue.addAll(Arrays.asList(node.children));
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Entry<T> entry = (Entry<T>) item;
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<T> result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static <E> E[] insertAt(E[] array, int index, E element) {
+        E[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        result[index] = element;
+        return result;
+    }
+
+    private static <E> E[] removeAt(E[] array, int index) {
+        E[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
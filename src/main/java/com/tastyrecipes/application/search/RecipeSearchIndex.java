@@ -0,0 +1,231 @@
+package com.tastyrecipes.application.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over recipe title, description and ingredients, ranked
+ * with BM25F (per-field length normalisation and weights, one shared saturation).
+ */
+@Component
+public class RecipeSearchIndex {
+
+    static final int TITLE = 0;
+    static final int DESCRIPTION = 1;
+    static final int INGREDIENTS = 2;
+    static final int FIELD_COUNT = 3;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final double[] fieldWeights;
+
+    // term -> (recipe id -> term frequency per field)
+    private final Map<String, Map<Long, int[]>> postings = new HashMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELD_COUNT];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public RecipeSearchIndex(@Value("${search.weight.title:3.0}") double titleWeight,
+                             @Value("${search.weight.description:1.0}") double descriptionWeight,
+                             @Value("${search.weight.ingredients:1.5}") double ingredientsWeight) {
+        this.fieldWeights = new double[]{titleWeight, descriptionWeight, ingredientsWeight};
+    }
+
+    /**
+     * Per-document forward index: field lengths plus per-field term frequencies.
+     * Kept so a document can be removed or re-indexed without re-reading it.
+     */
+    record IndexedDocument(long id, int[] fieldLengths, Map<String, int[]> termFrequencies) {
+    }
+
+    public record ScoredRecipe(long recipeId, double score) {
+    }
+
+    public static IndexedDocument analyze(long id, String title, String description, String ingredients) {
+        String[] fields = {title, description, ingredients};
+        int[] lengths = new int[FIELD_COUNT];
+        Map<String, int[]> frequencies = new HashMap<>();
+
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            List<String> terms = TextAnalyzer.analyze(fields[field]);
+            lengths[field] = terms.size();
+            for (String term : terms) {
+                frequencies.computeIfAbsent(term, t -> new int[FIELD_COUNT])[field]++;
+            }
+        }
+        return new IndexedDocument(id, lengths, frequencies);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(long id, String title, String description, String ingredients) {
+        put(analyze(id, title, description, ingredients));
+    }
+
+    void put(IndexedDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            documents.put(document.id(), document);
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                totalFieldLengths[field] += document.fieldLengths()[field];
+            }
+            for (Map.Entry<String, int[]> entry : document.termFrequencies().entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(document.id(), entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void retainAll(Set<Long> liveIds) {
+        lock.writeLock().lock();
+        try {
+            List<Long> stale = new ArrayList<>();
+            for (Long id : documents.keySet()) {
+                if (!liveIds.contains(id)) {
+                    stale.add(id);
+                }
+            }
+            stale.forEach(this::removeInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        IndexedDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            totalFieldLengths[field] -= existing.fieldLengths()[field];
+        }
+        for (String term : existing.termFrequencies().keySet()) {
+            Map<Long, int[]> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns every recipe matching at least one query term, best match first.
+     */
+    public List<ScoredRecipe> search(String query) {
+        LinkedHashSet<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+
+            double[] averageLengths = new double[FIELD_COUNT];
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                averageLengths[field] = Math.max(1.0, (double) totalFieldLengths[field] / docCount);
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, int[]> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+
+                int df = docs.size();
+                double idf = Math.log(1.0 + (docCount - df + 0.5) / (df + 0.5));
+
+                for (Map.Entry<Long, int[]> posting : docs.entrySet()) {
+                    int[] lengths = documents.get(posting.getKey()).fieldLengths();
+                    int[] tf = posting.getValue();
+
+                    double weightedTf = 0.0;
+                    for (int field = 0; field < FIELD_COUNT; field++) {
+                        if (tf[field] > 0) {
+                            double norm = 1.0 - B + B * lengths[field] / averageLengths[field];
+                            weightedTf += fieldWeights[field] * tf[field] / norm;
+                        }
+                    }
+                    double termScore = idf * weightedTf / (K1 + weightedTf);
+                    scores.merge(posting.getKey(), termScore, Double::sum);
+                }
+            }
+
+            List<ScoredRecipe> results = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> results.add(new ScoredRecipe(id, score)));
+            results.sort((a, b) -> {
+                int byScore = Double.compare(b.score(), a.score());
+                return byScore != 0 ? byScore : Long.compare(b.recipeId(), a.recipeId());
+            });
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<IndexedDocument> snapshotDocuments() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(documents.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                totalFieldLengths[field] = 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
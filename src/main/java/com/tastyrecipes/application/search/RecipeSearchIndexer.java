@@ -0,0 +1,198 @@
+package com.tastyrecipes.application.search;
+
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link RecipeSearchIndex} in step with the recipes table: loads the persisted
+ * segment (or re-indexes from scratch) at startup, applies recipe changes after commit
+ * and periodically writes a fresh segment back to disk.
+ */
+@Component
+public class RecipeSearchIndexer {
+    private static final Logger log = LoggerFactory.getLogger(RecipeSearchIndexer.class);
+
+    // Catch-up window on restart, to cover clock skew between the app and the database
+    private static final long CATCH_UP_MARGIN_SECONDS = 60;
+
+    @Autowired
+    private RecipeSearchIndex searchIndex;
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Value("${search.index-dir:search-index}")
+    private String indexDir;
+
+    @Value("${search.rebuild-batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // While a full load runs, changes are only noted here and the recipes re-read afterwards
+    private volatile boolean loading = true;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (!loadSegment()) {
+                rebuild();
+            }
+            searchIndex.markReady();
+            log.info("Search index ready with {} recipes in {} ms", searchIndex.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            loading = false;
+            // Searches keep using the database until the next restart
+            log.error("Failed to initialize search index", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        if (event.getType() == RecipeChangedEvent.Type.DELETED) {
+            searchIndex.remove(event.getRecipeId());
+        } else {
+            index(event.getRecipe());
+        }
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${search.flush-interval:PT5M}")
+    public void flushIfDirty() {
+        if (searchIndex.isReady() && dirty.getAndSet(false)) {
+            writeSegment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushIfDirty();
+    }
+
+    public void rebuild() {
+        loading = true;
+        try {
+            searchIndex.clear();
+
+            long afterId = 0L;
+            List<Recipe> batch;
+            while (!(batch = recipeRepository.findBatchAfter(afterId, Limit.of(batchSize))).isEmpty()) {
+                batch.forEach(this::index);
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } finally {
+            finishLoading();
+        }
+        dirty.set(false);
+        writeSegment();
+    }
+
+    private boolean loadSegment() {
+        Path segmentFile = segmentFile();
+        if (!Files.exists(segmentFile)) {
+            return false;
+        }
+
+        SearchIndexSegment.Snapshot snapshot;
+        try {
+            snapshot = SearchIndexSegment.read(segmentFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable search index segment {}: {}", segmentFile, e.getMessage());
+            return false;
+        }
+
+        try {
+            searchIndex.clear();
+            snapshot.documents().forEach(searchIndex::put);
+
+            // Apply whatever changed while we were down: deletions, then edits and inserts
+            searchIndex.retainAll(new HashSet<>(recipeRepository.findAllIds()));
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.createdAtMillis()),
+                    ZoneId.systemDefault()).minusSeconds(CATCH_UP_MARGIN_SECONDS);
+            List<Recipe> changed = recipeRepository.findUpdatedSince(since);
+            changed.forEach(this::index);
+
+            if (!changed.isEmpty()) {
+                dirty.set(true);
+            }
+            log.info("Loaded search index segment with {} recipes, {} re-indexed since snapshot",
+                    snapshot.documents().size(), changed.size());
+        } finally {
+            finishLoading();
+        }
+        return true;
+    }
+
+    private void finishLoading() {
+        loading = false;
+        List<Long> changed = new ArrayList<>(changedWhileLoading);
+        changedWhileLoading.removeAll(changed);
+        if (!changed.isEmpty()) {
+            reindex(changed);
+            dirty.set(true);
+        }
+    }
+
+    // Indexes each recipe as it is now in the database, dropping those since deleted
+    private void reindex(List<Long> recipeIds) {
+        for (int from = 0; from < recipeIds.size(); from += batchSize) {
+            List<Long> batch = recipeIds.subList(from, Math.min(from + batchSize, recipeIds.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (Recipe recipe : recipeRepository.findByIdIn(batch)) {
+                index(recipe);
+                missing.remove(recipe.getId());
+            }
+            missing.forEach(searchIndex::remove);
+        }
+    }
+
+    private void writeSegment() {
+        long snapshotAt = System.currentTimeMillis();
+        try {
+            SearchIndexSegment.write(segmentFile(), snapshotAt, searchIndex.snapshotDocuments());
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Failed to write search index segment", e);
+        }
+    }
+
+    private void index(Recipe recipe) {
+        searchIndex.index(recipe.getId(), recipe.getTitle(), recipe.getDescription(), recipe.getIngredients());
+    }
+
+    private Path segmentFile() {
+        return Paths.get(indexDir).resolve("recipes.seg");
+    }
+}
@@ -0,0 +1,107 @@
+package com.tastyrecipes.application.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk snapshot of the search index's forward documents. Postings are rebuilt
+ * from it on load, which avoids both re-reading the recipes table and re-tokenizing.
+ *
+ * Layout: magic, version, snapshot time, document count, then per document its id,
+ * field lengths and (term, per-field frequencies) pairs, followed by a CRC32.
+ */
+final class SearchIndexSegment {
+
+    private static final int MAGIC = 0x52534958; // "RSIX"
+    private static final int VERSION = 1;
+
+    record Snapshot(long createdAtMillis, List<RecipeSearchIndex.IndexedDocument> documents) {
+    }
+
+    private SearchIndexSegment() {
+    }
+
+    static void write(Path file, long createdAtMillis, List<RecipeSearchIndex.IndexedDocument> documents) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAtMillis);
+            out.writeInt(documents.size());
+
+            for (RecipeSearchIndex.IndexedDocument document : documents) {
+                out.writeLong(document.id());
+                for (int length : document.fieldLengths()) {
+                    out.writeInt(length);
+                }
+                out.writeInt(document.termFrequencies().size());
+                for (Map.Entry<String, int[]> entry : document.termFrequencies().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    for (int tf : entry.getValue()) {
+                        out.writeInt(tf);
+                    }
+                }
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Snapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported search index segment: " + file);
+            }
+
+            long createdAtMillis = in.readLong();
+            int documentCount = in.readInt();
+            List<RecipeSearchIndex.IndexedDocument> documents = new ArrayList<>(documentCount);
+
+            for (int i = 0; i < documentCount; i++) {
+                long id = in.readLong();
+                int[] lengths = new int[RecipeSearchIndex.FIELD_COUNT];
+                for (int field = 0; field < lengths.length; field++) {
+                    lengths[field] = in.readInt();
+                }
+                int termCount = in.readInt();
+                Map<String, int[]> frequencies = new HashMap<>(termCount * 2);
+                for (int t = 0; t < termCount; t++) {
+                    String term = in.readUTF();
+                    int[] tf = new int[RecipeSearchIndex.FIELD_COUNT];
+                    for (int field = 0; field < tf.length; field++) {
+                        tf[field] = in.readInt();
+                    }
+                    frequencies.put(term, tf);
+                }
+                documents.add(new RecipeSearchIndex.IndexedDocument(id, lengths, frequencies));
+            }
+
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Search index segment checksum mismatch: " + file);
+            }
+            return new Snapshot(createdAtMillis, documents);
+        }
+    }
+}
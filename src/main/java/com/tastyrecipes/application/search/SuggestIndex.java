@@ -0,0 +1,257 @@
+package com.tastyrecipes.application.search;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead over recipe titles and ingredient names. Titles are weighted by
+ * their recipe's review count and can be completed from any word, so "curr" finds
+ * "Thai Green Curry"; ingredients are weighted by how many recipes use them.
+ */
+@Component
+public class SuggestIndex {
+
+    public record Suggestion(String text, Long recipeId, long weight) {
+    }
+
+    // Later words of long titles are not worth a trie key each
+    private static final int MAX_TITLE_KEYS = 6;
+
+    private record IndexedRecipe(String title, List<String> titleKeys, Set<String> ingredients, long weight) {
+    }
+
+    private final PrefixTrie<Long> titles = new PrefixTrie<>();
+    private final PrefixTrie<String> ingredients = new PrefixTrie<>();
+    private final Map<Long, IndexedRecipe> recipes = new HashMap<>();
+    private final Map<String, Integer> ingredientCounts = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return recipes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a recipe. {@code reviewCount} sets the title's popularity.
+     */
+    public void index(long recipeId, String title, Collection<String> ingredientNames, long reviewCount) {
+        List<String> titleKeys = titleKeys(title);
+        IndexedRecipe recipe = new IndexedRecipe(title, titleKeys, new HashSet<>(ingredientNames), reviewCount + 1);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+            if (titleKeys.isEmpty() && recipe.ingredients().isEmpty()) {
+                return;
+            }
+            recipes.put(recipeId, recipe);
+            addTitle(recipeId, recipe);
+            for (String ingredient : recipe.ingredients()) {
+                adjustIngredient(ingredient, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Shifts a title's popularity when reviews are added or removed.
+     */
+    public void adjustReviewCount(long recipeId, int delta) {
+        lock.writeLock().lock();
+        try {
+            IndexedRecipe recipe = recipes.get(recipeId);
+            if (recipe == null) {
+                return;
+            }
+            removeTitle(recipeId, recipe);
+            IndexedRecipe adjusted = new IndexedRecipe(recipe.title(), recipe.titleKeys(), recipe.ingredients(),
+                    Math.max(1, recipe.weight() + delta));
+            recipes.put(recipeId, adjusted);
+            addTitle(recipeId, adjusted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            ingredients.clear();
+            recipes.clear();
+            ingredientCounts.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most reviewed recipe titles containing a word that starts with the prefix. Recipes
+     * sharing a title are suggested once, as the most reviewed of them.
+     */
+    public List<Suggestion> suggestTitles(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> results = new ArrayList<>(limit);
+        if (key.isEmpty()) {
+            return results;
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<String> seen = new HashSet<>();
+            Iterator<PrefixTrie.Entry<Long>> completions = titles.complete(key);
+            while (results.size() < limit && completions.hasNext()) {
+                PrefixTrie.Entry<Long> entry = completions.next();
+                IndexedRecipe recipe = recipes.get(entry.value());
+                if (seen.add(recipe.titleKeys().get(0))) {
+                    results.add(new Suggestion(recipe.title(), entry.value(), entry.weight()));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Most used ingredient names starting with the prefix.
+     */
+    public List<Suggestion> suggestIngredients(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> results = new ArrayList<>(limit);
+        if (key.isEmpty()) {
+            return results;
+        }
+
+        lock.readLock().lock();
+        try {
+            Iterator<PrefixTrie.Entry<String>> completions = ingredients.complete(key);
+            while (results.size() < limit && completions.hasNext()) {
+                PrefixTrie.Entry<String> entry = completions.next();
+                results.add(new Suggestion(entry.value(), null, entry.weight()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long recipeId) {
+        IndexedRecipe recipe = recipes.remove(recipeId);
+        if (recipe == null) {
+            return;
+        }
+        removeTitle(recipeId, recipe);
+        for (String ingredient : recipe.ingredients()) {
+            adjustIngredient(ingredient, -1);
+        }
+    }
+
+    private void addTitle(long recipeId, IndexedRecipe recipe) {
+        for (String key : recipe.titleKeys()) {
+            titles.add(key, recipeId, recipe.weight());
+        }
+    }
+
+    private void removeTitle(long recipeId, IndexedRecipe recipe) {
+        for (String key : recipe.titleKeys()) {
+            titles.remove(key, recipeId);
+        }
+    }
+
+    private void adjustIngredient(String ingredient, int delta) {
+        String key = normalize(ingredient);
+        if (key.isEmpty()) {
+            return;
+        }
+        int previous = ingredientCounts.getOrDefault(key, 0);
+        int count = previous + delta;
+        if (previous > 0) {
+            ingredients.remove(key, key);
+        }
+        if (count > 0) {
+            ingredients.add(key, key, count);
+            ingredientCounts.put(key, count);
+        } else {
+            ingredientCounts.remove(key);
+        }
+    }
+
+    // The whole title, then the title from each later word
+    private static List<String> titleKeys(String title) {
+        String normalized = normalize(title);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0 && keys.size() < MAX_TITLE_KEYS; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * Lowercases, strips accents and collapses anything but letters and digits to single
+     * spaces, so "Crème Brûlée!" and "creme brulee" share a key.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !key.isEmpty()) {
+                    key.append(' ');
+                }
+                pendingSpace = false;
+                key.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.tastyrecipes.application.search;
+
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link SuggestIndex} in step with the recipes table: loads it at startup and
+ * applies recipe and review changes after commit.
+ */
+@Component
+public class SuggestIndexer {
+    private static final Logger log = LoggerFactory.getLogger(SuggestIndexer.class);
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${suggest.recount-batch-size:500}")
+    private int recountBatchSize;
+
+    // While the index loads, changes are only noted here and the recipes re-read afterwards,
+    // so neither a deletion nor a review count delta is undone by an older row from the load
+    private volatile boolean loading = true;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            try {
+                suggestIndex.clear();
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<RecipeRepository.SuggestTerms> rows = recipeRepository.streamSuggestTerms()) {
+                        rows.forEach(row -> suggestIndex.index(row.getId(), row.getTitle(),
+                                IngredientParser.parse(row.getIngredients()), row.getReviewCount()));
+                    }
+                });
+            } finally {
+                finishLoading();
+            }
+            suggestIndex.markReady();
+            log.info("Suggest index ready with {} recipes in {} ms", suggestIndex.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            loading = false;
+            // Suggestions stay empty until the next restart
+            log.error("Failed to initialize suggest index", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        if (event.getType() == RecipeChangedEvent.Type.DELETED) {
+            suggestIndex.remove(event.getRecipeId());
+        } else {
+            Recipe recipe = event.getRecipe();
+            suggestIndex.index(recipe.getId(), recipe.getTitle(), IngredientParser.parse(recipe.getIngredients()),
+                    recipe.getReviewCount());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getRecipeId());
+            return;
+        }
+        if (event.getType() == ReviewChangedEvent.Type.CREATED) {
+            suggestIndex.adjustReviewCount(event.getRecipeId(), 1);
+        } else if (event.getType() == ReviewChangedEvent.Type.DELETED) {
+            suggestIndex.adjustReviewCount(event.getRecipeId(), -1);
+        }
+    }
+
+    // Indexes each recipe, review count included, as it is now in the database
+    private void finishLoading() {
+        loading = false;
+        List<Long> changed = new ArrayList<>(changedWhileLoading);
+        changedWhileLoading.removeAll(changed);
+        for (int from = 0; from < changed.size(); from += recountBatchSize) {
+            List<Long> batch = changed.subList(from, Math.min(from + recountBatchSize, changed.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (Recipe recipe : recipeRepository.findByIdIn(batch)) {
+                suggestIndex.index(recipe.getId(), recipe.getTitle(), IngredientParser.parse(recipe.getIngredients()),
+                        recipe.getReviewCount());
+                missing.remove(recipe.getId());
+            }
+            missing.forEach(suggestIndex::remove);
+        }
+    }
+}
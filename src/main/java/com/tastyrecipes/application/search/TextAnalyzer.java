@@ -0,0 +1,89 @@
+package com.tastyrecipes.application.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits recipe text into lowercase terms, drops stop words and applies a light
+ * English suffix stemmer. The same analysis is used for documents and queries.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "then", "to", "with", "until", "your", "you", "this", "that");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                String term = normalize(token.toString());
+                if (term != null) {
+                    terms.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static String normalize(String token) {
+        if (token.length() < 2 || STOP_WORDS.contains(token)) {
+            return null;
+        }
+        return stem(token);
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+
+        if (word.endsWith("ies") && word.length() > 4) {
+            word = word.substring(0, word.length() - 3) + "y";
+        } else if (word.endsWith("oes") || word.endsWith("shes") || word.endsWith("ches")
+                || word.endsWith("xes") || word.endsWith("sses")) {
+            word = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            word = word.substring(0, word.length() - 1);
+        }
+
+        if (word.endsWith("ing") && word.length() > 5) {
+            word = undouble(word.substring(0, word.length() - 3));
+        } else if (word.endsWith("ed") && word.length() > 4) {
+            word = undouble(word.substring(0, word.length() - 2));
+        } else if (word.endsWith("ly") && word.length() > 4) {
+            word = word.substring(0, word.length() - 2);
+        }
+
+        // Drop a silent trailing "e" so "bake", "baked" and "baking" share a stem
+        if (word.endsWith("e") && word.length() > 3) {
+            word = word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    // "chopp" -> "chop", but keep "ll", "ss" and "zz" which are usually part of the stem
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n > 2 && stem.charAt(n - 1) == stem.charAt(n - 2)) {
+            char c = stem.charAt(n - 1);
+            if ("aeioulsz".indexOf(c) < 0) {
+                return stem.substring(0, n - 1);
+            }
+        }
+        return stem;
+    }
+}
@@ -1,18 +1,27 @@
 package com.tastyrecipes.application.security;
 
+import com.tastyrecipes.application.cache.BoundedTtlCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -24,17 +33,81 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // Default 24 hours
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Recently verified tokens; 0 disables the cache
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private BoundedTtlCache<String, VerifiedToken> verifiedTokens;
+
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+
+    @PostConstruct
+    void init() {
+        cachedTimer = verifyTimer("cached");
+        verifiedTimer = verifyTimer("verified");
+        rejectedTimer = verifyTimer("rejected");
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        // No token outlives jwt.expiration, and each entry is kept only until its own token expires
+        verifiedTokens = new BoundedTtlCache<>("verified-tokens", verifiedCacheSize, Duration.ofMillis(jwtExpiration));
+        verifiedTokens.bindTo(meterRegistry);
+    }
+
+    /**
+     * Parses and verifies the token once. A token seen recently is answered from a
+     * bounded cache of verified tokens, skipping the HMAC, for as long as it has not expired.
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        long startedAt = System.nanoTime();
+        long loadGeneration = verifiedTokens.generation();
+        if (verifiedTokens.isEnabled()) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null && !cached.isExpired()) {
+                cachedTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return cached;
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (RuntimeException e) {
+            rejectedTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        verifiedTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration());
+        if (verified.getExpiration() != null) {
+            verifiedTokens.put(token, verified, loadGeneration,
+                    Duration.ofMillis(verified.getExpiration().getTime() - System.currentTimeMillis()));
+        }
+        return verified;
+    }
+
+    private Timer verifyTimer(String result) {
+        return Timer.builder("security.jwt.verifications")
+                .description("Bearer token verification, including verified-token cache hits")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).getExpiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -43,15 +116,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -65,12 +130,15 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    public Boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject().equals(userDetails.getUsername()) && !token.isExpired();
     }
-}
\ No newline at end of file
+}
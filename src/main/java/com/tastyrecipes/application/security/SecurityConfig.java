@@ -3,6 +3,7 @@ package com.tastyrecipes.application.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -50,11 +51,18 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Would otherwise match the public /api/recipes/{id} rule below
+                        .requestMatchers("/api/recipes/import", "/api/recipes/export", "/api/recipes/for-you").authenticated()
                         .requestMatchers("/api/recipes").permitAll()
                         .requestMatchers("/api/recipes/search").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/recipes/suggest", "/api/recipes/top-rated",
+                                "/api/recipes/trending", "/api/recipes/what-can-i-cook").permitAll()
                         .requestMatchers("/api/recipes/{id}").permitAll()
                         .requestMatchers("/api/recipes/{id}/reviews").permitAll()
+                        .requestMatchers("/api/recipes/{id}/similar").permitAll()
                         .requestMatchers("/uploads/**").permitAll()
+                        // Metrics need a token like any other API call; the scraper sends one as a bearer token
+                        .requestMatchers("/actuator/health").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -3,12 +3,10 @@ package com.tastyrecipes.application.security;
 import com.tastyrecipes.application.model.User;
 import com.tastyrecipes.application.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -18,15 +16,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
 
 
+    // Not read-only, so it reads the primary: logging in right after registering must not depend on replica lag
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    @Transactional
+    public UserPrincipal loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new UserPrincipal(
+                user.getId(),
+                user.getName(),
                 user.getEmail(),
-                user.getPassword(),
-                new ArrayList<>() // No authorities/roles for simplicity
+                user.getPassword()
         );
     }
 }
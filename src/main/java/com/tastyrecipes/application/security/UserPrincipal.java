@@ -0,0 +1,26 @@
+package com.tastyrecipes.application.security;
+
+import lombok.Getter;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+
+/**
+ * Authenticated user as seen by controllers. Carries the user id and display name
+ * so request handling does not have to look the user up again by email.
+ */
+@Getter
+public class UserPrincipal extends User {
+    private final Long id;
+    private final String name;
+
+    public UserPrincipal(Long id, String name, String email, String password) {
+        super(email, password, new ArrayList<>()); // No authorities/roles for simplicity
+        this.id = id;
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return getUsername();
+    }
+}
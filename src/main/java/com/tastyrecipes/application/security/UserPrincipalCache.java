@@ -0,0 +1,69 @@
+package com.tastyrecipes.application.security;
+
+import com.tastyrecipes.application.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-limited LRU of authenticated principals keyed by email, consulted by
+ * {@link JwtAuthenticationFilter} so authenticated requests skip the users lookup.
+ */
+@Component
+public class UserPrincipalCache implements MeterBinder {
+
+    private final BoundedTtlCache<String, UserPrincipal> principals;
+
+    public UserPrincipalCache(@Value("${security.principal-cache.max-size:10000}") int maxSize,
+                              @Value("${security.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.principals = new BoundedTtlCache<>("principals", maxSize, ttl);
+    }
+
+    public UserPrincipal get(String email, Function<String, UserPrincipal> loader) {
+        long loadGeneration = principals.generation();
+        UserPrincipal principal = principals.get(email);
+        if (principal != null) {
+            return principal;
+        }
+
+        // Load outside the lock; a concurrent miss for the same email just loads twice
+        principal = loader.apply(email);
+        principals.put(email, principal, loadGeneration);
+        return principal;
+    }
+
+    /**
+     * Drops every cached principal for the user now and again once the surrounding
+     * transaction commits, so a request racing the update cannot re-cache stale data.
+     */
+    public void invalidateUser(Long userId) {
+        removeUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeUser(userId);
+                }
+            });
+        }
+    }
+
+    private void removeUser(Long userId) {
+        principals.invalidateIf((email, principal) -> principal.getId().equals(userId));
+    }
+
+    public int size() {
+        return principals.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        principals.bindTo(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.tastyrecipes.application.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Claims of a JWT whose signature has already been checked. Produced once per
+ * request by {@link JwtUtil#verify(String)}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class VerifiedToken {
+    private final String subject;
+    private final Date expiration;
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,260 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.cache.RecipeCache;
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the thumbnail, card and full-size variants of a recipe image in the
+ * background once the recipe is committed. The upload request only stores the
+ * original; clients keep getting it until the variants are recorded on the recipe.
+ */
+@Service
+public class ImageProcessingService {
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessingService.class);
+
+    enum Variant {
+        THUMBNAIL("thumb", 240),
+        CARD("card", 640),
+        FULL("full", 1600);
+
+        private final String suffix;
+        private final int maxDimension;
+
+        Variant(String suffix, int maxDimension) {
+            this.suffix = suffix;
+            this.maxDimension = maxDimension;
+        }
+    }
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private RecipeCache recipeCache;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${images.variants.quality:0.8}")
+    private float quality;
+
+    // A decoded image takes 4 bytes a pixel however small its file is
+    @Value("${images.variants.max-pixels:40000000}")
+    private long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+
+    public ImageProcessingService(@Value("${images.processing.threads:2}") int threads,
+                                  @Value("${images.processing.queue-capacity:100}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-processing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        Recipe recipe = event.getRecipe();
+        if (recipe == null || recipe.getImageUrl() == null || recipe.getThumbnailUrl() != null) {
+            return;
+        }
+
+        Long recipeId = recipe.getId();
+        String imageUrl = recipe.getImageUrl();
+        try {
+            executor.execute(() -> generateVariants(recipeId, imageUrl));
+        } catch (RejectedExecutionException e) {
+            // Queue is full: the original keeps being served, nothing else to do
+            log.warn("Image processing queue full, skipping variants for recipe {}", recipeId);
+        }
+    }
+
+    void generateVariants(Long recipeId, String imageUrl) {
+        Path original = Paths.get(imageUrl);
+        List<Path> written = new ArrayList<>();
+        try {
+            String[] paths = new String[Variant.values().length];
+            BufferedImage source = null;
+            for (Variant variant : Variant.values()) {
+                Path target = variantPath(original, variant);
+                paths[variant.ordinal()] = target.toString();
+                // Images are content-addressed, so a duplicate upload already has its variants
+                if (Files.exists(target)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = readImage(original);
+                    if (source == null) {
+                        log.warn("Unsupported or oversized image for recipe {}: {}", recipeId, imageUrl);
+                        return;
+                    }
+                }
+                long startedAt = System.nanoTime();
+                writeJpeg(resize(source, variant.maxDimension), target);
+                Timer.builder("images.variants.writes")
+                        .description("Time to resize and encode one image variant")
+                        .tag("variant", variant.suffix)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                DistributionSummary.builder("images.variants.size")
+                        .baseUnit("bytes")
+                        .tag("variant", variant.suffix)
+                        .register(meterRegistry)
+                        .record(Files.size(target));
+                written.add(target);
+            }
+
+            // Zero rows means the recipe was deleted or got a new image in the meantime;
+            // the variants belong to the stored image and go with it when it is collected
+            int updated = recipeRepository.setImageVariants(recipeId, imageUrl,
+                    paths[Variant.THUMBNAIL.ordinal()], paths[Variant.CARD.ordinal()], paths[Variant.FULL.ordinal()]);
+            if (updated > 0) {
+                recipeCache.invalidateRecipe(recipeId);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to generate image variants for recipe {}", recipeId, e);
+            deleteQuietly(written);
+        }
+    }
+
+    /**
+     * Decodes the image, or returns null if no reader supports it or its header declares
+     * more than {@code images.variants.max-pixels}. The dimensions are checked before any
+     * pixel is decoded, so a small, highly compressed file cannot exhaust the heap.
+     */
+    BufferedImage readImage(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Not decoding {}: {}x{} is over the {} pixel limit", file, width, height, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static Path variantPath(Path original, Variant variant) {
+        String filename = original.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return original.resolveSibling(base + "_" + variant.suffix + ".jpg");
+    }
+
+    // Halves the image until close to the target, then does one bilinear pass; much
+    // better quality than a single large bilinear step and cheaper than bicubic
+    static BufferedImage resize(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            int nextWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int nextHeight = Math.max(targetHeight, current.getHeight() / 2);
+            if (current != source && nextWidth == current.getWidth() && nextHeight == current.getHeight()) {
+                break;
+            }
+            current = draw(current, nextWidth, nextHeight);
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+
+        return current;
+    }
+
+    // JPEG has no alpha, so transparent areas are flattened onto white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        // Unique temp name: two recipes sharing an image may generate its variants at once
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteQuietly(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete image variant {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
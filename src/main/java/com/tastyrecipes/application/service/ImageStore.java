@@ -0,0 +1,320 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.model.ImageBlob;
+import com.tastyrecipes.application.model.ReleasedLegacyImage;
+import com.tastyrecipes.application.repository.ImageBlobRepository;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReleasedLegacyImageRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed store for uploaded images. Each upload is written in a single
+ * streaming pass: the type is sniffed from the first bytes, the SHA-256 is computed
+ * while the bytes are transferred into a {@link FileChannel}, and the size limit is
+ * enforced as data arrives. Files live at {@code <upload-dir>/ab/cd/<hash>.<ext>}, so
+ * identical uploads share one file.
+ *
+ * <p>Recipes hold references through {@link #acquire} and {@link #release}, which only
+ * adjust a counter in the caller's transaction. Files are deleted later by
+ * {@link #collectGarbage}, once a blob has had no references for the grace period.
+ */
+@Component
+public class ImageStore {
+    private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final int HEADER_LENGTH = 12;
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    enum ImageType {
+        JPEG(".jpg"), PNG(".png"), GIF(".gif"), WEBP(".webp");
+
+        private final String extension;
+
+        ImageType(String extension) {
+            this.extension = extension;
+        }
+
+        static ImageType sniff(byte[] header) {
+            if (header.length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+                return JPEG;
+            }
+            if (header.length >= 4 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+                return PNG;
+            }
+            if (header.length >= 4 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+                return GIF;
+            }
+            if (header.length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                    && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+                return WEBP;
+            }
+            return null;
+        }
+    }
+
+    @Value("${file.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${images.upload.max-size:104857600}")
+    private long maxSize;
+
+    @Value("${images.gc.grace-period:PT1H}")
+    private Duration gracePeriod;
+
+    @Value("${images.gc.batch-size:500}")
+    private int gcBatchSize;
+
+    @Value("${images.gc.legacy.enabled:false}")
+    private boolean collectLegacy;
+
+    @Autowired
+    private ImageBlobRepository blobRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ReleasedLegacyImageRepository legacyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Serialises placing and collecting the files of one hash within this instance. Not
+    // monitors: these are held across JDBC and file I/O, which would pin a virtual thread's carrier
+    private final ReentrantLock[] locks = new ReentrantLock[64];
+
+    {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Streams an image to its final location and returns the stored path.
+     *
+     * @param declaredLength the Content-Length if known, otherwise -1
+     */
+    public String store(InputStream content, long declaredLength) throws IOException {
+        long startedAt = System.nanoTime();
+        if (declaredLength > maxSize) {
+            throw new MaxUploadSizeExceededException(maxSize);
+        }
+
+        Path uploadPath = Paths.get(uploadDir);
+        Files.createDirectories(uploadPath);
+
+        BufferedInputStream input = new BufferedInputStream(content, 64 * 1024);
+        input.mark(HEADER_LENGTH);
+        ImageType type = ImageType.sniff(input.readNBytes(HEADER_LENGTH));
+        input.reset();
+        if (type == null) {
+            throw new IllegalArgumentException("Only JPEG, PNG, GIF and WebP images are supported");
+        }
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(uploadPath, "upload-", ".part");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = Channels.newChannel(new DigestInputStream(input, digest))) {
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(in, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                    if (position > maxSize) {
+                        throw new MaxUploadSizeExceededException(maxSize);
+                    }
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = uploadPath.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + type.extension);
+            long size = Files.size(temp);
+            boolean duplicate;
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                blobRepository.touch(hash, target.toString(), size, LocalDateTime.now());
+                duplicate = Files.exists(target);
+                if (duplicate) {
+                    Files.delete(temp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                lock.unlock();
+            }
+            String result = duplicate ? "duplicate" : "stored";
+            Timer.builder("images.uploads")
+                    .description("Time to stream, hash and place an uploaded image")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("images.uploads.size")
+                    .baseUnit("bytes")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(size);
+            return target.toString();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Records one more reference to a stored image. Must run in the transaction that
+     * makes a recipe point at it.
+     */
+    public void acquire(String path) {
+        String hash = hashOf(path);
+        if (hash != null) {
+            blobRepository.adjustReferences(hash, 1, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Drops a reference to a stored image. The files stay until the blob has been
+     * unreferenced for the grace period. Images stored before content addressing have
+     * no blob and are only recorded here; see {@link #collectLegacyFiles}.
+     */
+    public void release(String path) {
+        if (path == null) {
+            return;
+        }
+        String hash = hashOf(path);
+        if (hash != null) {
+            blobRepository.adjustReferences(hash, -1, LocalDateTime.now());
+            return;
+        }
+        Path file = Paths.get(path).getFileName();
+        if (file != null && Files.isRegularFile(Paths.get(uploadDir).resolve(file))) {
+            legacyRepository.record(file.toString(), LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${images.gc.interval:PT10M}", fixedDelayString = "${images.gc.interval:PT10M}")
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        List<ImageBlob> candidates;
+        do {
+            candidates = blobRepository.findCollectable(cutoff, Limit.of(gcBatchSize));
+            int collected = 0;
+            for (ImageBlob blob : candidates) {
+                ReentrantLock lock = lockFor(blob.getHash());
+                lock.lock();
+                try {
+                    if (blobRepository.deleteIfUnreferenced(blob.getHash(), cutoff) > 0) {
+                        deleteFiles(Paths.get(blob.getPath()));
+                        collected++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (collected > 0) {
+                log.info("Collected {} unreferenced images", collected);
+            }
+        } while (candidates.size() == gcBatchSize);
+
+        if (collectLegacy) {
+            collectLegacyFiles(cutoff);
+        }
+    }
+
+    /*
+     * Uploads from before content addressing sit directly in the upload directory and any
+     * number of recipes may point at one. Only files a recipe has released are candidates,
+     * and each goes only once no recipe refers to its file name. Off unless
+     * images.gc.legacy.enabled is set, since a deleted legacy image cannot be recovered.
+     */
+    private void collectLegacyFiles(LocalDateTime cutoff) {
+        Path uploadPath = Paths.get(uploadDir);
+        List<ReleasedLegacyImage> candidates;
+        int collected = 0;
+        do {
+            candidates = legacyRepository.findCollectable(cutoff, Limit.of(gcBatchSize));
+            for (ReleasedLegacyImage released : candidates) {
+                String name = released.getFileName();
+                Path file = uploadPath.resolve(name).normalize();
+                boolean collectable = file.getParent() != null && file.getParent().equals(uploadPath.normalize())
+                        && !recipeRepository.isImageFileReferenced(name);
+                if (legacyRepository.deleteIfReleasedBefore(name, cutoff) > 0 && collectable) {
+                    deleteFiles(file);
+                    collected++;
+                }
+            }
+        } while (candidates.size() == gcBatchSize);
+        if (collected > 0) {
+            log.info("Collected {} unreferenced legacy images", collected);
+        }
+    }
+
+    // The original plus the variants generated next to it
+    private void deleteFiles(Path original) {
+        List<Path> files = new ArrayList<>();
+        files.add(original);
+        for (ImageProcessingService.Variant variant : ImageProcessingService.Variant.values()) {
+            files.add(ImageProcessingService.variantPath(original, variant));
+        }
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete image {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    static String hashOf(String path) {
+        String filename = Paths.get(path).getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base.length() == 64 && base.chars().allMatch(c -> Character.digit(c, 16) >= 0 && !Character.isUpperCase(c))
+                ? base : null;
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.cache.RecipeCache;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the denormalized rating aggregates on recipes from the reviews table.
+ * Recipes are walked in id order, one batch per transaction, and each batch locks
+ * its recipe rows so concurrent review writes are applied after the recount.
+ */
+@Component
+public class RatingAggregateReconciler {
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateReconciler.class);
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Value("${ratings.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${ratings.reconcile.initial-delay:PT1M}",
+            fixedDelayString = "${ratings.reconcile.interval:PT24H}")
+    public void reconcileAll() {
+        long afterId = 0L;
+        int updated = 0;
+
+        List<Long> recipeIds;
+        while (!(recipeIds = recipeRepository.findIdsAfter(afterId, Limit.of(batchSize))).isEmpty()) {
+            List<Long> batch = recipeIds;
+            Integer batchUpdated = transactionTemplate.execute(status -> reconcileBatch(batch));
+            updated += batchUpdated != null ? batchUpdated : 0;
+            afterId = recipeIds.get(recipeIds.size() - 1);
+        }
+
+        // Any cached aggregate may have been corrected
+        recipeCache.invalidateAll();
+        log.info("Rating aggregate reconciliation finished, {} recipes updated", updated);
+    }
+
+    private int reconcileBatch(List<Long> recipeIds) {
+        recipeRepository.lockByIds(recipeIds);
+
+        Map<Long, ReviewRepository.RatingAggregate> aggregates = new HashMap<>();
+        for (ReviewRepository.RatingAggregate aggregate : reviewRepository.aggregateRatings(recipeIds)) {
+            aggregates.put(aggregate.getRecipeId(), aggregate);
+        }
+
+        int updated = 0;
+        for (Long recipeId : recipeIds) {
+            ReviewRepository.RatingAggregate aggregate = aggregates.get(recipeId);
+            long ratingSum = aggregate != null ? aggregate.getRatingSum() : 0L;
+            int reviewCount = aggregate != null ? aggregate.getReviewCount().intValue() : 0;
+            updated += recipeRepository.setRatingAggregates(recipeId, ratingSum, reviewCount);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,296 @@
+package com.tastyrecipes.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tastyrecipes.application.dto.ImportResult;
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.search.IngredientParser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk recipe import and export. Imports are parsed and validated one record at a time
+ * and written with batched JDBC inserts, one transaction per batch; exports page
+ * through recipes by id and stream each page as it is read.
+ */
+@Service
+public class RecipeBulkService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String INSERT_SQL = "INSERT INTO recipes " +
+            "(title, description, ingredients, steps, user_id, created_at, updated_at, rating_sum, review_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)";
+    private static final String INSERT_INGREDIENT_SQL =
+            "INSERT INTO recipe_ingredients (recipe_id, ingredient) VALUES (?, ?)";
+
+    private static final String[] CSV_COLUMNS = {"id", "title", "description", "ingredients", "steps", "imageUrl",
+            "userId", "userName", "createdAt", "averageRating", "reviewCount"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+
+    @Value("${recipes.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${recipes.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${recipes.export.page-size:500}")
+    private int exportPageSize;
+
+    private record PendingRecord(long line, RecipeDto recipe) {
+    }
+
+    private final class Importer {
+        private final User user;
+        private final List<PendingRecord> batch = new ArrayList<>();
+        private final List<ImportResult.RecordError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        Importer(User user) {
+            this.user = user;
+        }
+
+        void accept(long line, RecipeDto recipe) {
+            String violations = validator.validate(recipe).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            if (!violations.isEmpty()) {
+                reject(line, violations);
+                return;
+            }
+            batch.add(new PendingRecord(line, recipe));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportResult.RecordError(line, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingRecord> records = List.copyOf(batch);
+            batch.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(user, records));
+                imported += records.size();
+            } catch (DataAccessException e) {
+                String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+                records.forEach(record -> reject(record.line(), message));
+            }
+        }
+
+        ImportResult result() {
+            flush();
+            return new ImportResult(imported, failed, errors);
+        }
+    }
+
+    public ImportResult importRecipes(InputStream content, Format format, Long userId) throws IOException {
+        Importer importer = new Importer(userService.findById(userId));
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+        if (format == Format.NDJSON) {
+            importNdjson(new BufferedReader(reader), importer);
+        } else {
+            importCsv(reader, importer);
+        }
+        return importer.result();
+    }
+
+    private void importNdjson(BufferedReader reader, Importer importer) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                importer.accept(lineNumber, objectMapper.readValue(line, RecipeDto.class));
+            } catch (JsonProcessingException e) {
+                importer.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void importCsv(Reader reader, Importer importer) throws IOException {
+        RecipeCsv.RecordReader records = new RecipeCsv.RecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        for (String required : List.of("title", "description", "ingredients", "steps")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+
+        while (true) {
+            List<String> fields;
+            try {
+                fields = records.next();
+            } catch (IllegalArgumentException e) {
+                // An unterminated quote swallows the rest of the input; earlier records still count
+                importer.reject(records.getRecordLine(), e.getMessage());
+                return;
+            }
+            if (fields == null) {
+                return;
+            }
+            if (fields.size() != header.size()) {
+                importer.reject(records.getRecordLine(), "Expected " + header.size() + " fields but found " + fields.size());
+                continue;
+            }
+            RecipeDto recipe = new RecipeDto();
+            recipe.setTitle(fields.get(columns.get("title")));
+            recipe.setDescription(fields.get(columns.get("description")));
+            recipe.setIngredients(fields.get(columns.get("ingredients")));
+            recipe.setSteps(fields.get(columns.get("steps")));
+            importer.accept(records.getRecordLine(), recipe);
+        }
+    }
+
+    /*
+     * Recipe ids stay IDENTITY: MySQL has no sequences, a TABLE generator would serialise
+     * every insert on one row, and the existing auto-increment column would need a
+     * migration. Hibernate cannot batch IDENTITY inserts, so this bypasses it; with
+     * rewriteBatchedStatements=true Connector/J sends each batch as one multi-row INSERT
+     * and still returns the generated keys.
+     */
+    private void insertBatch(User user, List<PendingRecord> records) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RecipeDto recipe = records.get(i).recipe();
+                        ps.setString(1, recipe.getTitle());
+                        ps.setString(2, recipe.getDescription());
+                        ps.setString(3, recipe.getIngredients());
+                        ps.setString(4, recipe.getSteps());
+                        ps.setLong(5, user.getId());
+                        ps.setTimestamp(6, now);
+                        ps.setTimestamp(7, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return records.size();
+                    }
+                }, keys);
+
+        // Index and invalidate caches for the new rows once the batch commits
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        List<Object[]> ingredientRows = new ArrayList<>();
+        for (int i = 0; i < records.size() && i < keyList.size(); i++) {
+            RecipeDto source = records.get(i).recipe();
+            Recipe recipe = new Recipe();
+            recipe.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+            recipe.setIngredientNames(IngredientParser.parse(source.getIngredients()));
+            for (String ingredient : recipe.getIngredientNames()) {
+                ingredientRows.add(new Object[]{recipe.getId(), ingredient});
+            }
+            recipe.setTitle(source.getTitle());
+            recipe.setDescription(source.getDescription());
+            recipe.setIngredients(source.getIngredients());
+            recipe.setSteps(source.getSteps());
+            recipe.setUser(user);
+            recipe.setCreatedAt(now.toLocalDateTime());
+            recipe.setUpdatedAt(now.toLocalDateTime());
+            eventPublisher.publishEvent(RecipeChangedEvent.created(recipe));
+        }
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT_SQL, ingredientRows);
+    }
+
+    /**
+     * Writes every recipe in id order, one page in memory at a time.
+     */
+    public void exportRecipes(OutputStream out, Format format) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (format == Format.CSV) {
+            RecipeCsv.writeRow(writer, (Object[]) CSV_COLUMNS);
+        }
+
+        long afterId = 0L;
+        List<RecipeDto> page;
+        do {
+            page = recipeRepository.findSummariesAfterId(afterId, Limit.of(exportPageSize));
+            for (RecipeDto recipe : page) {
+                if (format == Format.CSV) {
+                    RecipeCsv.writeRow(writer, recipe.getId(), recipe.getTitle(), recipe.getDescription(),
+                            recipe.getIngredients(), recipe.getSteps(), recipe.getImageUrl(), recipe.getUserId(),
+                            recipe.getUserName(), recipe.getCreatedAt(), recipe.getAverageRating(), recipe.getReviewCount());
+                } else {
+                    writer.write(objectMapper.writeValueAsString(recipe));
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == exportPageSize);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tastyrecipes.application.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV: comma separated, fields optionally double-quoted, quotes escaped
+ * by doubling, and quoted fields may span lines.
+ */
+final class RecipeCsv {
+
+    private RecipeCsv() {
+    }
+
+    static final class RecordReader {
+        private final Reader in;
+        // One character of push-back, -2 when empty since -1 means end of input
+        private int pending = -2;
+        private long line = 1;
+        private long recordLine;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Line on which the last record returned by {@link #next()} started.
+         */
+        long getRecordLine() {
+            return recordLine;
+        }
+
+        /**
+         * Returns the next record's fields, or null at the end of input.
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                skipLineBreak(c);
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    if (c != -1) {
+                        skipLineBreak(c);
+                    }
+                    return fields;
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        // Counts the line break starting with c, consuming the \n of a \r\n pair
+        private void skipLineBreak(int c) throws IOException {
+            line++;
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pending = next;
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+
+    static void writeRow(Writer out, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i] == null ? "" : values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+}
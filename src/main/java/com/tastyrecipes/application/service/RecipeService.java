@@ -1,34 +1,79 @@
 package com.tastyrecipes.application.service;
 
+import com.tastyrecipes.application.cache.RecipeCache;
+import com.tastyrecipes.application.dto.CursorPage;
+import com.tastyrecipes.application.dto.PantryMatchDto;
+import com.tastyrecipes.application.dto.SuggestionsDto;
+import com.tastyrecipes.application.dto.RecipeCursor;
 import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.dto.SearchCursor;
+import com.tastyrecipes.application.event.RecipeChangedEvent;
 import com.tastyrecipes.application.exception.ResourceNotFoundException;
+import com.tastyrecipes.application.exception.ServiceUnavailableException;
 import com.tastyrecipes.application.exception.UnauthorizedException;
+import com.tastyrecipes.application.leaderboard.RecipeLeaderboards;
 import com.tastyrecipes.application.model.Recipe;
 import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.recommend.RecommendationIndex;
 import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.search.IngredientIndex;
+import com.tastyrecipes.application.search.IngredientParser;
+import com.tastyrecipes.application.search.RecipeSearchIndex;
+import com.tastyrecipes.application.search.SuggestIndex;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class RecipeService {
+    private static final int MAX_RANKED_RESULTS = 50;
+    private static final int MAX_PANTRY_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // Best matches handed to the database when a search is sorted on a recipe column
+    private static final int MAX_SORTED_MATCHES = 1000;
+
     @Autowired
     private RecipeRepository recipeRepository;
     @Autowired
     private UserService userService;
-
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private RecipeSearchIndex searchIndex;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ImageStore imageStore;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecipeCache recipeCache;
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+    @Autowired
+    private RecipeLeaderboards leaderboards;
+    @Autowired
+    private IngredientIndex ingredientIndex;
+    @Autowired
+    private SuggestIndex suggestIndex;
 
 
 
@@ -37,12 +82,229 @@ public class RecipeService {
                 .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id));
     }
 
-    public Page<Recipe> findAll(Pageable pageable) {
-        return recipeRepository.findAll(pageable);
+    public RecipeDto findSummaryById(Long id) {
+        return recipeCache.getRecipe(id, () -> recipeRepository.findSummaryById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + id)));
+    }
+
+    public Page<RecipeDto> findAllSummaries(Pageable pageable) {
+        return recipeCache.getRecipePage(pageable, () -> recipeRepository.findAllSummaries(pageable));
     }
 
-    public Page<Recipe> searchRecipes(String keyword, Pageable pageable) {
-        return recipeRepository.searchRecipes(keyword, pageable);
+    @Transactional(readOnly = true)
+    public CursorPage<RecipeDto> findSummariesAfterCursor(String cursor, int size) {
+        checkCursorPageSize(size);
+        RecipeCursor position = RecipeCursor.decode(cursor);
+        return toCursorPage(recipeRepository.findSummariesBefore(
+                position.getCreatedAt(), position.getId(), Limit.of(size + 1)), size);
+    }
+
+    /**
+     * Relevance-ordered search results after {@code cursor}. Only the page's ids are
+     * hydrated, so each page is one statement however many recipes match.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<RecipeDto> searchRecipesAfterCursor(String keyword, String cursor, int size) {
+        checkCursorPageSize(size);
+        SearchCursor position = SearchCursor.decode(cursor);
+
+        if (!searchIndex.isReady()) {
+            if (!position.isStart() && !position.isFallback()) {
+                throw new ServiceUnavailableException("Search is being re-indexed, please try again shortly");
+            }
+            // Until the index has loaded, LIKE matches come newest id first
+            List<RecipeDto> rows = recipeRepository.searchSummariesBeforeId(keyword, position.getId(), Limit.of(size + 1));
+            if (rows.size() <= size) {
+                return new CursorPage<>(rows, null);
+            }
+            List<RecipeDto> content = rows.subList(0, size);
+            return new CursorPage<>(content, SearchCursor.fallback(content.get(size - 1).getId()).encode());
+        }
+        if (position.isFallback()) {
+            // Newest-first positions mean nothing in the relevance order
+            throw new IllegalArgumentException("Search results are now ranked by relevance, please start again without a cursor");
+        }
+
+        List<RecipeSearchIndex.ScoredRecipe> matches = searchIndex.search(keyword);
+        // Matches are sorted best first, so those after the cursor are a suffix
+        int low = 0;
+        int high = matches.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            RecipeSearchIndex.ScoredRecipe match = matches.get(mid);
+            if (position.isBefore(match.score(), match.recipeId())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        List<RecipeSearchIndex.ScoredRecipe> page = matches.subList(low, Math.min(low + size, matches.size()));
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        RecipeSearchIndex.ScoredRecipe last = page.get(page.size() - 1);
+        String nextCursor = low + size < matches.size() ? SearchCursor.ranked(last.score(), last.recipeId()).encode() : null;
+        return new CursorPage<>(findRankedSummaries(page), nextCursor);
+    }
+
+    private void checkCursorPageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+    }
+
+    // Callers fetch one extra row to learn whether another page exists without a COUNT query
+    private CursorPage<RecipeDto> toCursorPage(List<RecipeDto> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<RecipeDto> content = rows.subList(0, size);
+        return new CursorPage<>(content, RecipeCursor.of(content.get(size - 1)).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecipeDto> findSummariesByUserId(Long userId) {
+        return recipeRepository.findSummariesByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countByUserId(Long userId) {
+        return recipeRepository.countByUserId(userId);
+    }
+
+    /**
+     * Feeds the user's recipes to {@code action} straight from a database cursor, so only
+     * the current row is held in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamSummariesByUserId(Long userId, Pageable pageable, Consumer<RecipeDto> action) {
+        try (Stream<RecipeDto> recipes = recipeRepository.streamSummariesByUserId(userId, pageable)) {
+            recipes.forEach(action);
+        }
+    }
+
+    public List<RecipeDto> findSimilarRecipes(Long id, int limit) {
+        checkRankedLimit(limit);
+        // Unknown recipes are a 404 rather than an empty list
+        findSummaryById(id);
+        return hydrate(recommendationIndex.similar(id, limit).stream()
+                .map(RecommendationIndex.ScoredRecipe::recipeId).toList());
+    }
+
+    public List<RecipeDto> recommendFor(Long userId, int limit) {
+        checkRankedLimit(limit);
+        return hydrate(recommendationIndex.recommendFor(userId, limit).stream()
+                .map(RecommendationIndex.ScoredRecipe::recipeId).toList());
+    }
+
+    public List<RecipeDto> findTopRated(int limit) {
+        checkRankedLimit(limit);
+        return hydrate(leaderboards.topRated(limit).stream().map(RecipeLeaderboards.ScoredRecipe::recipeId).toList());
+    }
+
+    public List<RecipeDto> findTrending(int limit) {
+        checkRankedLimit(limit);
+        return hydrate(leaderboards.trending(limit).stream().map(RecipeLeaderboards.ScoredRecipe::recipeId).toList());
+    }
+
+    /**
+     * Recipes ranked by how much of their ingredient list the pantry covers. Pantry entries
+     * are parsed like recipe ingredients, so "3 eggs" matches "egg".
+     */
+    public List<PantryMatchDto> findByPantry(List<String> pantry, int limit, Integer maxMissing) {
+        checkRankedLimit(limit);
+        Set<String> ingredients = new LinkedHashSet<>();
+        for (String entry : pantry) {
+            ingredients.addAll(IngredientParser.parse(entry));
+        }
+        if (ingredients.isEmpty() || ingredients.size() > MAX_PANTRY_SIZE) {
+            throw new IllegalArgumentException("Pantry must list between 1 and " + MAX_PANTRY_SIZE + " ingredients");
+        }
+
+        List<IngredientIndex.PantryMatch> matches = ingredientIndex.match(ingredients, limit, maxMissing);
+        Map<Long, RecipeDto> recipes = new HashMap<>();
+        for (RecipeDto recipe : hydrate(matches.stream().map(IngredientIndex.PantryMatch::recipeId).toList())) {
+            recipes.put(recipe.getId(), recipe);
+        }
+
+        List<PantryMatchDto> results = new ArrayList<>(matches.size());
+        for (IngredientIndex.PantryMatch match : matches) {
+            RecipeDto recipe = recipes.get(match.recipeId());
+            if (recipe != null) {
+                results.add(new PantryMatchDto(recipe, match.coverage(), match.matched(), match.total(),
+                        match.missing()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Typeahead for the search box, answered from memory; empty until the index has loaded.
+     */
+    public SuggestionsDto suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return new SuggestionsDto(suggestIndex.suggestTitles(prefix, limit),
+                suggestIndex.suggestIngredients(prefix, limit));
+    }
+
+    private void checkRankedLimit(int limit) {
+        if (limit < 1 || limit > MAX_RANKED_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RANKED_RESULTS);
+        }
+    }
+
+    // Recipes deleted since they were ranked are dropped here
+    private List<RecipeDto> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return recipeCache.getRecipes(ids, recipeRepository::findSummariesByIdIn);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RecipeDto> searchRecipes(String keyword, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return recipeRepository.searchSummaries(keyword, pageable);
+        }
+
+        List<RecipeSearchIndex.ScoredRecipe> matches = searchIndex.search(keyword);
+        if (matches.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // An explicit sort is applied by the database over only the best matches, so a broad
+        // keyword cannot put every recipe id into one IN list
+        if (pageable.getSort().isSorted()) {
+            if (pageable.getOffset() >= MAX_SORTED_MATCHES) {
+                throw new IllegalArgumentException("Sorted search results are limited to the best "
+                        + MAX_SORTED_MATCHES + " matches");
+            }
+            List<Long> ids = matches.subList(0, Math.min(matches.size(), MAX_SORTED_MATCHES)).stream()
+                    .map(RecipeSearchIndex.ScoredRecipe::recipeId).toList();
+            return recipeRepository.findSummariesByIdIn(ids, pageable);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(findRankedSummaries(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    // Recipes deleted since they were indexed are dropped here
+    private List<RecipeDto> findRankedSummaries(List<RecipeSearchIndex.ScoredRecipe> matches) {
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < matches.size(); i++) {
+            rank.put(matches.get(i).recipeId(), i);
+        }
+
+        List<RecipeDto> content = new ArrayList<>(recipeRepository.findSummariesByIdIn(rank.keySet()));
+        content.sort(Comparator.comparing(recipe -> rank.get(recipe.getId())));
+        return content;
     }
 
     @Transactional
@@ -53,15 +315,19 @@ public class RecipeService {
         recipe.setTitle(recipeDto.getTitle());
         recipe.setDescription(recipeDto.getDescription());
         recipe.setIngredients(recipeDto.getIngredients());
+        recipe.setIngredientNames(IngredientParser.parse(recipeDto.getIngredients()));
         recipe.setSteps(recipeDto.getSteps());
         recipe.setUser(user);
 
         if (image != null && !image.isEmpty()) {
             String imagePath = saveImage(image);
+            imageStore.acquire(imagePath);
             recipe.setImageUrl(imagePath);
         }
 
-        return recipeRepository.save(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.created(saved));
+        return saved;
     }
 
     @Transactional
@@ -75,24 +341,43 @@ public class RecipeService {
         recipe.setTitle(recipeDto.getTitle());
         recipe.setDescription(recipeDto.getDescription());
         recipe.setIngredients(recipeDto.getIngredients());
+        // Updated in place so Hibernate only writes the names that changed
+        Set<String> ingredientNames = IngredientParser.parse(recipeDto.getIngredients());
+        recipe.getIngredientNames().retainAll(ingredientNames);
+        recipe.getIngredientNames().addAll(ingredientNames);
         recipe.setSteps(recipeDto.getSteps());
 
         if (image != null && !image.isEmpty()) {
-            // Delete old image if exists
-            if (recipe.getImageUrl() != null) {
-                try {
-                    Files.deleteIfExists(Paths.get(recipe.getImageUrl()));
-                } catch (IOException e) {
-                    // Log error but continue
-                    System.err.println("Failed to delete old image: " + e.getMessage());
-                }
-            }
-
             String imagePath = saveImage(image);
-            recipe.setImageUrl(imagePath);
+            replaceImage(recipe, imagePath);
         }
 
-        return recipeRepository.save(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.updated(saved));
+        return saved;
+    }
+
+    /**
+     * Replaces a recipe's image with a raw image request body. The body is streamed to
+     * disk before any database work, so no connection is held while the client uploads.
+     */
+    public Recipe replaceImage(Long recipeId, Long userId, InputStream content, long contentLength) throws IOException {
+        // If the transaction fails the stored file is left unreferenced and collected later
+        String imagePath = imageStore.store(content, contentLength);
+
+        return transactionTemplate.execute(status -> {
+            Recipe recipe = findById(recipeId);
+
+            if (!recipe.getUser().getId().equals(userId)) {
+                throw new UnauthorizedException("You can only update your own recipes");
+            }
+
+            replaceImage(recipe, imagePath);
+
+            Recipe saved = recipeRepository.save(recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.updated(saved));
+            return saved;
+        });
     }
 
     @Transactional
@@ -103,34 +388,29 @@ public class RecipeService {
             throw new UnauthorizedException("You can only delete your own recipes");
         }
 
-        // Delete image if exists
-        if (recipe.getImageUrl() != null) {
-            try {
-                Files.deleteIfExists(Paths.get(recipe.getImageUrl()));
-            } catch (IOException e) {
-                // Log error but continue with deletion
-                System.err.println("Failed to delete image: " + e.getMessage());
-            }
-        }
+        // The files are deleted later, once no recipe references them
+        imageStore.release(recipe.getImageUrl());
 
         recipeRepository.delete(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipeId));
     }
 
-    private String saveImage(MultipartFile image) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    private void replaceImage(Recipe recipe, String imagePath) {
+        if (imagePath.equals(recipe.getImageUrl())) {
+            return;
         }
 
-        // Generate unique filename to prevent overwriting
-        String filename = UUID.randomUUID() + "_" + image.getOriginalFilename();
-        Path filePath = uploadPath.resolve(filename);
+        imageStore.acquire(imagePath);
+        imageStore.release(recipe.getImageUrl());
 
-        // Save the file
-        Files.copy(image.getInputStream(), filePath);
+        recipe.setImageUrl(imagePath);
+        recipe.setThumbnailUrl(null);
+        recipe.setCardImageUrl(null);
+        recipe.setFullImageUrl(null);
+    }
 
-        return filePath.toString();
+    private String saveImage(MultipartFile image) throws IOException {
+        return imageStore.store(image.getInputStream(), image.getSize());
     }
 
     public RecipeDto convertToDto(Recipe recipe) {
@@ -141,11 +421,14 @@ public class RecipeService {
         dto.setIngredients(recipe.getIngredients());
         dto.setSteps(recipe.getSteps());
         dto.setImageUrl(recipe.getImageUrl());
+        dto.setThumbnailUrl(recipe.getThumbnailUrl());
+        dto.setCardImageUrl(recipe.getCardImageUrl());
+        dto.setFullImageUrl(recipe.getFullImageUrl());
         dto.setUserId(recipe.getUser().getId());
         dto.setUserName(recipe.getUser().getName());
         dto.setCreatedAt(recipe.getCreatedAt());
         dto.setAverageRating(recipe.getAverageRating());
-        dto.setReviewCount(recipe.getReviews().size());
+        dto.setReviewCount(recipe.getReviewCount());
 
         return dto;
     }
@@ -0,0 +1,332 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.cache.ExistenceFilters;
+import com.tastyrecipes.application.config.ReadYourWrites;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
+import com.tastyrecipes.application.exception.ResourceNotFoundException;
+import com.tastyrecipes.application.exception.ServiceUnavailableException;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReviewRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind path for new reviews. A submission is validated up front, against the
+ * recipe cache, the reviews still queued and the existence filter before any uniqueness
+ * query, and then queued. A single writer takes whatever has queued while its previous
+ * batch was committing, inserts it in one multi-row batch and adjusts each recipe's rating
+ * aggregates once per batch. Callers wait for their batch to commit, so a 201 still
+ * means the review is stored. A caller that gives up while its review is queued gets a 503
+ * and the review is never written; one that gives up mid-batch gets a 503 and the review is
+ * stored anyway.
+ */
+@Service
+public class ReviewIngestionService implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ReviewIngestionService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO reviews (user_id, recipe_id, rating, comment, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private record ReviewKey(long userId, long recipeId) {
+    }
+
+    private record PendingReview(ReviewKey key, String userName, int rating, String comment,
+                                 CompletableFuture<ReviewDto> ack) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ExistenceFilters existenceFilters;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Value("${reviews.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${reviews.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${reviews.write-behind.ack-timeout:PT5S}")
+    private Duration ackTimeout;
+
+    private final BlockingQueue<PendingReview> queue;
+    // Reviews queued or being written, so a repeat submission is caught before it reaches the database
+    private final Set<ReviewKey> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Thread writer;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ReviewIngestionService(@Value("${reviews.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "review-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the review and waits for it to commit. If it is still queued when the
+     * acknowledgment times out it is withdrawn and the caller gets a
+     * {@link ServiceUnavailableException}; once the writer has taken it, the caller waits
+     * one more timeout for that batch and otherwise gets a 503 while the writer finishes it.
+     */
+    public ReviewDto submit(ReviewDto reviewDto, Long userId, String userName) {
+        Integer rating = reviewDto.getRating();
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        Long recipeId = reviewDto.getRecipeId();
+        recipeService.findSummaryById(recipeId);
+
+        ReviewKey key = new ReviewKey(userId, recipeId);
+        if (!pending.add(key)) {
+            throw new IllegalArgumentException("You have already reviewed this recipe");
+        }
+        PendingReview review = new PendingReview(key, userName, rating, reviewDto.getComment(),
+                new CompletableFuture<>());
+        try {
+            if (existenceFilters.reviewExists(userId, recipeId,
+                    () -> reviewRepository.existsByUserIdAndRecipeId(userId, recipeId))) {
+                throw new IllegalArgumentException("You have already reviewed this recipe");
+            }
+            if (!running || !queue.offer(review)) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Too many reviews are being submitted, please try again shortly");
+            }
+        } catch (RuntimeException e) {
+            pending.remove(key);
+            throw e;
+        }
+
+        try {
+            ReviewDto stored;
+            try {
+                stored = review.ack().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (queue.remove(review)) {
+                    pending.remove(key);
+                    throw new ServiceUnavailableException("Reviews are backed up, please try again shortly");
+                }
+                try {
+                    stored = review.ack().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException stillWriting) {
+                    // The writer finishes the batch without us; pin the user's reads once it commits
+                    review.ack().thenRun(() -> readYourWrites.markWrite(userId));
+                    throw new ServiceUnavailableException("Your review is still being saved, please check back shortly");
+                }
+            }
+            // The writer thread commits on the user's behalf, so their reads are pinned here
+            readYourWrites.markWrite(userId);
+            return stored;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the review to be saved");
+        }
+    }
+
+    private void drain() {
+        List<PendingReview> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingReview first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Never let the writer die; the batch's callers have already been failed
+                log.error("Review writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingReview> batch) {
+        List<ReviewDto> stored;
+        try {
+            stored = transactionTemplate.execute(status -> insert(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // One bad row fails the whole batch; retry them one by one so only it is rejected
+                for (PendingReview review : batch) {
+                    write(List.of(review));
+                }
+                return;
+            }
+            fail(batch.get(0), e);
+            return;
+        }
+
+        written.add(batch.size());
+        batches.increment();
+        for (int i = 0; i < batch.size(); i++) {
+            pending.remove(batch.get(i).key());
+            batch.get(i).ack().complete(stored.get(i));
+        }
+    }
+
+    private List<ReviewDto> insert(List<PendingReview> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingReview review = batch.get(i);
+                        ps.setLong(1, review.key().userId());
+                        ps.setLong(2, review.key().recipeId());
+                        ps.setInt(3, review.rating());
+                        ps.setString(4, review.comment());
+                        ps.setTimestamp(5, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keys);
+
+        // Per recipe rating sum and count; updated in id order so concurrent writers lock rows alike
+        Map<Long, long[]> aggregates = new TreeMap<>();
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        List<ReviewDto> stored = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingReview review = batch.get(i);
+            Long id = ((Number) keyList.get(i).values().iterator().next()).longValue();
+            long recipeId = review.key().recipeId();
+            long[] aggregate = aggregates.computeIfAbsent(recipeId, k -> new long[2]);
+            aggregate[0] += review.rating();
+            aggregate[1]++;
+
+            stored.add(new ReviewDto(id, recipeId, review.key().userId(), review.userName(), review.rating(),
+                    review.comment(), now));
+            eventPublisher.publishEvent(ReviewChangedEvent.created(id, recipeId, review.rating(), now));
+            existenceFilters.addReview(review.key().userId(), recipeId);
+        }
+        aggregates.forEach((recipeId, aggregate) ->
+                recipeRepository.adjustRatingAggregates(recipeId, aggregate[0], (int) aggregate[1]));
+        return stored;
+    }
+
+    private void fail(PendingReview review, RuntimeException e) {
+        pending.remove(review.key());
+        RuntimeException cause = e;
+        if (e instanceof DuplicateKeyException) {
+            cause = new IllegalArgumentException("You have already reviewed this recipe");
+        } else if (e instanceof DataIntegrityViolationException) {
+            // The only other constraints are the foreign keys: the recipe was deleted meanwhile
+            cause = new ResourceNotFoundException("Recipe not found with id: " + review.key().recipeId());
+        } else {
+            log.error("Failed to write review of recipe {} by user {}", review.key().recipeId(),
+                    review.key().userId(), e);
+        }
+        review.ack().completeExceptionally(cause);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        // The writer keeps going until the queue is empty
+        writer.join();
+        // Submissions that raced with shutdown are written here rather than dropped
+        List<PendingReview> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("reviews.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("Reviews waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("reviews.write-behind.written", written, LongAdder::sum)
+                .description("Reviews written by the batch writer")
+                .register(registry);
+        FunctionCounter.builder("reviews.write-behind.batches", batches, LongAdder::sum)
+                .description("Batches committed by the batch writer")
+                .register(registry);
+        FunctionCounter.builder("reviews.write-behind.rejected", rejected, LongAdder::sum)
+                .description("Submissions turned away because the queue was full")
+                .register(registry);
+    }
+}
@@ -1,18 +1,25 @@
 package com.tastyrecipes.application.service;
 
+import com.tastyrecipes.application.cache.ExistenceFilters;
 import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
 import com.tastyrecipes.application.exception.ResourceNotFoundException;
 import com.tastyrecipes.application.exception.UnauthorizedException;
 import com.tastyrecipes.application.model.Recipe;
 import com.tastyrecipes.application.model.Review;
 import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
 import com.tastyrecipes.application.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReviewService {
@@ -22,13 +29,36 @@ public class ReviewService {
     private UserService userService;
     @Autowired
     private RecipeService recipeService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ExistenceFilters existenceFilters;
 
 
+    @Transactional(readOnly = true)
     public List<Review> findByRecipeId(Long recipeId) {
         Recipe recipe = recipeService.findById(recipeId);
         return reviewRepository.findByRecipe(recipe);
     }
 
+    @Transactional(readOnly = true)
+    public long countByUserId(Long userId) {
+        return reviewRepository.countByUserId(userId);
+    }
+
+    /**
+     * Feeds the user's reviews to {@code action} straight from a database cursor, so only
+     * the current row is held in memory.
+     */
+    @Transactional(readOnly = true)
+    public void streamByUserId(Long userId, Pageable pageable, Consumer<ReviewDto> action) {
+        try (Stream<ReviewDto> reviews = reviewRepository.streamByUserId(userId, pageable)) {
+            reviews.forEach(action);
+        }
+    }
+
     public Review findById(Long id) {
         return reviewRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + id));
@@ -40,7 +70,8 @@ public class ReviewService {
         Recipe recipe = recipeService.findById(reviewDto.getRecipeId());
 
         // Check if user already reviewed this recipe
-        if (reviewRepository.existsByUserAndRecipe(user, recipe)) {
+        if (existenceFilters.reviewExists(user.getId(), recipe.getId(),
+                () -> reviewRepository.existsByUserAndRecipe(user, recipe))) {
             throw new IllegalArgumentException("You have already reviewed this recipe");
         }
 
@@ -50,7 +81,12 @@ public class ReviewService {
         review.setRating(reviewDto.getRating());
         review.setComment(reviewDto.getComment());
 
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        recipeRepository.adjustRatingAggregates(recipe.getId(), saved.getRating(), 1);
+        existenceFilters.addReview(user.getId(), recipe.getId());
+        eventPublisher.publishEvent(ReviewChangedEvent.created(saved));
+
+        return saved;
     }
 
     @Transactional
@@ -61,10 +97,15 @@ public class ReviewService {
             throw new UnauthorizedException("You can only update your own reviews");
         }
 
+        int previousRating = review.getRating();
         review.setRating(reviewDto.getRating());
         review.setComment(reviewDto.getComment());
 
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        recipeRepository.adjustRatingAggregates(review.getRecipe().getId(), saved.getRating() - previousRating, 0);
+        eventPublisher.publishEvent(ReviewChangedEvent.updated(saved, previousRating));
+
+        return saved;
     }
 
     @Transactional
@@ -76,6 +117,8 @@ public class ReviewService {
         }
 
         reviewRepository.delete(review);
+        recipeRepository.adjustRatingAggregates(review.getRecipe().getId(), -review.getRating(), -1);
+        eventPublisher.publishEvent(ReviewChangedEvent.deleted(review));
     }
 
     public List<ReviewDto> convertToDtoList(List<Review> reviews) {
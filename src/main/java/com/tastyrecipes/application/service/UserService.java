@@ -1,10 +1,21 @@
 package com.tastyrecipes.application.service;
 
+import com.tastyrecipes.application.cache.ExistenceFilters;
+import com.tastyrecipes.application.cache.RecipeCache;
+import com.tastyrecipes.application.config.ReadYourWrites;
 import com.tastyrecipes.application.dto.UserDto;
+import com.tastyrecipes.application.event.RecipeChangedEvent;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
 import com.tastyrecipes.application.exception.ResourceNotFoundException;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.Review;
 import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
 import com.tastyrecipes.application.repository.UserRepository;
+import com.tastyrecipes.application.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -15,9 +26,30 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RecipeRepository recipeRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private RecipeCache recipeCache;
+
+    @Autowired
+    private ExistenceFilters existenceFilters;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
 
 
     public User findById(Long id) {
@@ -30,8 +62,10 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
 
+    // Not read-only, so the check is made on the primary: a replica may not have the account yet
+    @Transactional
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return existenceFilters.emailExists(email, () -> userRepository.existsByEmail(email));
     }
 
     @Transactional
@@ -45,16 +79,46 @@ public class UserService {
         user.setEmail(userDto.getEmail());
         user.setPassword(passwordEncoder.encode(userDto.getPassword()));
 
-        return userRepository.save(user);
+        existenceFilters.addEmail(user.getEmail());
+        User registered = saveCheckingEmail(user);
+        // There is no signed-in user yet, so the router cannot mark them by itself
+        readYourWrites.userWriting(registered.getId());
+        return registered;
     }
     @Transactional
     public User updateUser(User user) {
-        return userRepository.save(user);
+        // Covers profile edits and password changes; both go through here
+        principalCache.invalidateUser(user.getId());
+        recipeCache.invalidateUser(user.getId());
+        existenceFilters.addEmail(user.getEmail());
+        return saveCheckingEmail(user);
+    }
+
+    // The filter's folding only approximates the column collation, so the unique key has the last word
+    private User saveCheckingEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Email already in use");
+        }
     }
     @Transactional
     public void deleteAccount(Long userId) {
         User user = findById(userId);
+
+        // The user's reviews are removed by cascade, so take them out of the recipe aggregates first
+        for (Review review : user.getReviews()) {
+            recipeRepository.adjustRatingAggregates(review.getRecipe().getId(), -review.getRating(), -1);
+            eventPublisher.publishEvent(ReviewChangedEvent.deleted(review));
+        }
+
+        for (Recipe recipe : user.getRecipes()) {
+            imageStore.release(recipe.getImageUrl());
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipe.getId()));
+        }
+
         userRepository.delete(user);
+        principalCache.invalidateUser(userId);
     }
 
     public UserDto convertToDto(User user) {
@@ -0,0 +1,55 @@
+package com.tastyrecipes.application.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+	@Test
+	void neverMissesAnAddedKeyAndStaysNearTheTargetRate() {
+		int keys = 100_000;
+		BloomFilter filter = new BloomFilter(keys, 0.01);
+		for (long userId = 0; userId < keys / 100; userId++) {
+			for (long recipeId = 0; recipeId < 100; recipeId++) {
+				filter.put(BloomFilter.key(userId, recipeId));
+			}
+		}
+
+		for (long userId = 0; userId < keys / 100; userId++) {
+			for (long recipeId = 0; recipeId < 100; recipeId++) {
+				assertTrue(filter.mightContain(BloomFilter.key(userId, recipeId)));
+			}
+		}
+
+		int falsePositives = 0;
+		for (long userId = keys; userId < keys + keys / 100; userId++) {
+			for (long recipeId = 0; recipeId < 100; recipeId++) {
+				if (filter.mightContain(BloomFilter.key(userId, recipeId))) {
+					falsePositives++;
+				}
+			}
+		}
+		double observed = (double) falsePositives / keys;
+		assertTrue(observed < 0.015, "false positive rate " + observed);
+		assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.003);
+		// About 9.6 bits per key at 1%
+		assertTrue(filter.sizeInBytes() < keys * 10 / 8 + 8);
+	}
+
+	@Test
+	void hashesStringKeysByContent() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		filter.put(BloomFilter.key("cook@example.com"));
+
+		assertTrue(filter.mightContain(BloomFilter.key(new String("cook@example.com"))));
+		int hits = 0;
+		for (int i = 0; i < 1000; i++) {
+			if (filter.mightContain(BloomFilter.key("cook" + i + "@example.com"))) {
+				hits++;
+			}
+		}
+		assertTrue(hits < 10, "unexpected hits " + hits);
+	}
+}
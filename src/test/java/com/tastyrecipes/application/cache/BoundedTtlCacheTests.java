@@ -0,0 +1,74 @@
+package com.tastyrecipes.application.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTests {
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntryOnceFull() {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>("test", 2, Duration.ofMinutes(1));
+		cache.put("a", 1, cache.generation());
+		cache.put("b", 2, cache.generation());
+		cache.get("a");
+		cache.put("c", 3, cache.generation());
+
+		assertEquals(1, cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals(3, cache.get("c"));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void expiredEntriesAreMissesAndShorterEntryTtlsApply() throws InterruptedException {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>("test", 10, Duration.ofMillis(500));
+		cache.put("short", 1, cache.generation());
+		cache.put("shorter", 2, cache.generation(), Duration.ofMillis(20));
+		// Never longer than the cache's own TTL
+		cache.put("long", 3, cache.generation(), Duration.ofHours(1));
+		assertFalse(cache.put("expired", 4, cache.generation(), Duration.ofMillis(-1)));
+
+		Thread.sleep(50);
+		assertNull(cache.get("shorter"));
+		assertEquals(1, cache.get("short"));
+
+		Thread.sleep(500);
+		assertNull(cache.get("short"));
+		assertNull(cache.get("long"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void loadThatRacedAnInvalidationIsNotStored() {
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>("test", 10, Duration.ofMinutes(1));
+		cache.put("a", 1, cache.generation());
+
+		long loadGeneration = cache.generation();
+		cache.invalidateIf((key, value) -> value == 1);
+
+		assertFalse(cache.put("b", 2, loadGeneration));
+		assertNull(cache.get("a"));
+		assertTrue(cache.put("b", 2, cache.generation()));
+	}
+
+	@Test
+	void zeroMaxSizeStoresNothingAndCountsEveryLookupAsAMiss() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>("test", 0, Duration.ofMinutes(1));
+		cache.bindTo(registry);
+
+		assertFalse(cache.isEnabled());
+		assertFalse(cache.put("a", 1, cache.generation()));
+		assertNull(cache.get("a"));
+
+		assertEquals(1.0, registry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count());
+		assertEquals(0.0, registry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count());
+	}
+}
@@ -0,0 +1,87 @@
+package com.tastyrecipes.application.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ExistenceFiltersTests {
+
+	private final DriverManagerDataSource dataSource =
+			new DriverManagerDataSource("jdbc:h2:mem:existence_filters;DB_CLOSE_DELAY=-1", "sa", "");
+
+	// Runs once, after the rebuild has read the first email
+	private Runnable duringScan;
+
+	private ExistenceFilters filters;
+
+	@BeforeEach
+	void setUp() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+			@Override
+			public void query(PreparedStatementCreator creator, RowCallbackHandler handler) {
+				super.query(creator, (RowCallbackHandler) rs -> {
+					handler.processRow(rs);
+					if (duringScan != null) {
+						Runnable hook = duringScan;
+						duringScan = null;
+						hook.run();
+					}
+				});
+			}
+		};
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		jdbcTemplate.execute("CREATE TABLE users (email VARCHAR(255))");
+		jdbcTemplate.execute("CREATE TABLE reviews (user_id BIGINT, recipe_id BIGINT)");
+		jdbcTemplate.update("INSERT INTO users VALUES ('cook@example.com'), ('baker@example.com')");
+
+		filters = new ExistenceFilters();
+		ReflectionTestUtils.setField(filters, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(filters, "falsePositiveRate", 0.01);
+		ReflectionTestUtils.setField(filters, "headroom", 2.0);
+		ReflectionTestUtils.setField(filters, "fetchSize", 100);
+	}
+
+	@Test
+	void foldsEmailsLikeTheAccentAndCaseInsensitiveCollation() {
+		assertEquals(ExistenceFilters.emailKey("strasse@example.com"), ExistenceFilters.emailKey("Stra\u00dfe@Example.com"));
+		assertEquals(ExistenceFilters.emailKey("jose@example.com"), ExistenceFilters.emailKey(" Jos\u00e9@example.com "));
+		// The "fi" ligature
+		assertEquals(ExistenceFilters.emailKey("fiona@example.com"), ExistenceFilters.emailKey("\ufb01ona@example.com"));
+		assertNotEquals(ExistenceFilters.emailKey("fiona@example.com"), ExistenceFilters.emailKey("fionna@example.com"));
+	}
+
+	@Test
+	void emailAddedWhileARebuildIsScanningIsKept() {
+		filters.rebuild();
+		duringScan = () -> filters.addEmail("newcomer@example.com");
+		filters.rebuild();
+
+		assertTrue(filters.emailExists("newcomer@example.com", () -> true));
+		assertTrue(filters.emailExists("Cook@Example.com", () -> true));
+		assertFalse(filters.emailExists("stranger@example.com", () -> fail("the filter should rule this out")));
+	}
+
+	@Test
+	void possibleHitTheDatabaseRulesOutIsAFalsePositive() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		filters.bindTo(registry);
+		filters.rebuild();
+
+		// Still in the filter after the row is gone, as after a deleted account
+		assertFalse(filters.emailExists("cook@example.com", () -> false));
+
+		assertEquals(1.0, registry.get("existence.filter.checks")
+				.tag("filter", "emails").tag("result", "false_positive").functionCounter().count());
+	}
+}
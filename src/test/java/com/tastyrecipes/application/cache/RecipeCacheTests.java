@@ -0,0 +1,99 @@
+package com.tastyrecipes.application.cache;
+
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.event.ReviewChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RecipeCacheTests {
+
+	private final RecipeCache cache = new RecipeCache(100, Duration.ofMinutes(1), 3, Set.of(10),
+			new StaticListableBeanFactory().getBeanProvider(CacheTier.class),
+			new ResponseBodyCache(100, Duration.ofMinutes(1)));
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<RecipeDto> first = executor.submit(() -> cache.getRecipe(1L, () -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				await(release);
+				return recipe(1L);
+			}));
+			loading.await();
+			Future<RecipeDto> second = executor.submit(() -> cache.getRecipe(1L, () -> {
+				loads.incrementAndGet();
+				return recipe(1L);
+			}));
+			Thread.sleep(50);
+			release.countDown();
+
+			assertSame(first.get(), second.get());
+			assertEquals(1, loads.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void reviewChangesEvictOnlyEntriesShowingTheRecipe() {
+		AtomicInteger loads = new AtomicInteger();
+		Pageable firstPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+		Pageable secondPage = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+		cache.getRecipePage(firstPage, () -> page(loads, 1L, 2L));
+		cache.getRecipePage(secondPage, () -> page(loads, 3L, 4L));
+		cache.getRecipe(3L, () -> recipe(3L));
+		assertEquals(2, loads.get());
+
+		cache.onReviewChanged(new ReviewChangedEvent(ReviewChangedEvent.Type.CREATED, 10L, 1L, 5, null, LocalDateTime.now()));
+
+		cache.getRecipePage(firstPage, () -> page(loads, 1L, 2L));
+		cache.getRecipePage(secondPage, () -> page(loads, 3L, 4L));
+		assertEquals(3, loads.get());
+		assertEquals(3, cache.size());
+	}
+
+	private static Page<RecipeDto> page(AtomicInteger loads, Long... ids) {
+		loads.incrementAndGet();
+		return new PageImpl<>(Arrays.stream(ids).map(RecipeCacheTests::recipe).toList());
+	}
+
+	private static RecipeDto recipe(Long id) {
+		RecipeDto recipe = new RecipeDto();
+		recipe.setId(id);
+		recipe.setUserId(1L);
+		return recipe;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
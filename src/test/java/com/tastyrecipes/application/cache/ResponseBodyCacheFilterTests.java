@@ -0,0 +1,128 @@
+package com.tastyrecipes.application.cache;
+
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseBodyCacheFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private RecipeCache recipeCache;
+
+	private Recipe recipe;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		recipeCache.invalidateAll();
+
+		User user = new User();
+		user.setName("Cook");
+		user.setEmail("cook@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+
+		recipe = new Recipe();
+		recipe.setTitle("Pancakes");
+		recipe.setDescription("Fluffy");
+		recipe.setIngredients("flour, eggs");
+		recipe.setSteps("Mix and fry");
+		recipe.setUser(user);
+		recipe = recipeRepository.save(recipe);
+	}
+
+	@Test
+	void repeatedReadsAreServedFromStoredBytesAndRevalidated() throws Exception {
+		String url = "/api/recipes/" + recipe.getId();
+		MvcResult first = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult second = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+		assertEquals(etag, second.getResponse().getHeader(HttpHeaders.ETAG));
+		assertEquals(first.getResponse().getContentAsString(), second.getResponse().getContentAsString());
+
+		mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		recipeCache.invalidateRecipe(recipe.getId());
+		MvcResult third = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk()).andReturn();
+		assertNotEquals(etag, third.getResponse().getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void honoursEncodingWeightsAndEveryIfNoneMatchForm() throws Exception {
+		String url = "/api/recipes/" + recipe.getId();
+		String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+		mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "identity;q=0.5, *;q=0.1"))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "*"))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + etag))
+				.andExpect(status().isNotModified());
+		// Only a whole tag matches, not one containing it
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"x" + etag.substring(1)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void readsAcceptEncodingWeights() {
+		assertTrue(AcceptEncoding.accepts("gzip, deflate, br", "gzip"));
+		assertTrue(AcceptEncoding.accepts("GZIP;Q=0.8", "gzip"));
+		assertFalse(AcceptEncoding.accepts("gzip;q=0", "gzip"));
+		assertFalse(AcceptEncoding.accepts("gzip;q=0.000, *", "gzip"));
+		assertTrue(AcceptEncoding.accepts("*", "gzip"));
+		assertFalse(AcceptEncoding.accepts("*;q=0", "gzip"));
+		assertFalse(AcceptEncoding.accepts("x-gzipped", "gzip"));
+		assertFalse(AcceptEncoding.accepts(null, "gzip"));
+	}
+
+	@Test
+	void recognisesOnlyPublicRecipeReads() {
+		assertEquals(ResponseBodyCache.LISTING, ResponseBodyCacheFilter.recipeIdOf("/api/recipes"));
+		assertEquals(ResponseBodyCache.LISTING, ResponseBodyCacheFilter.recipeIdOf("/api/recipes/search"));
+		assertEquals(42L, ResponseBodyCacheFilter.recipeIdOf("/api/recipes/42"));
+		assertEquals(42L, ResponseBodyCacheFilter.recipeIdOf("/api/recipes/42/reviews"));
+		assertNull(ResponseBodyCacheFilter.recipeIdOf("/api/recipes/42/image"));
+		assertNull(ResponseBodyCacheFilter.recipeIdOf("/api/recipes/abc"));
+		assertNull(ResponseBodyCacheFilter.recipeIdOf("/api/users/me"));
+	}
+}
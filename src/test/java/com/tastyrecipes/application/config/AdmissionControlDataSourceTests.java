@@ -0,0 +1,62 @@
+package com.tastyrecipes.application.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlDataSourceTests {
+
+	private final DataSource pool = mock(DataSource.class);
+
+	@Test
+	void closingAConnectionTwiceReleasesItsPermitOnce() throws SQLException {
+		Connection pooled = mock(Connection.class);
+		when(pool.getConnection()).thenReturn(pooled);
+		AdmissionControlDataSource dataSource = new AdmissionControlDataSource(pool, 2, Duration.ofMillis(100));
+
+		Connection connection = dataSource.getConnection();
+		assertEquals(1, dataSource.getAvailablePermits());
+
+		connection.close();
+		connection.close();
+
+		assertEquals(2, dataSource.getAvailablePermits());
+		verify(pooled, times(2)).close();
+	}
+
+	@Test
+	void permitIsReleasedWhenThePoolFails() throws SQLException {
+		SQLException poolError = new SQLException("Connection refused");
+		when(pool.getConnection()).thenThrow(poolError);
+		AdmissionControlDataSource dataSource = new AdmissionControlDataSource(pool, 2, Duration.ofMillis(100));
+
+		assertSame(poolError, assertThrows(SQLException.class, dataSource::getConnection));
+		assertEquals(2, dataSource.getAvailablePermits());
+	}
+
+	@Test
+	void waitingForASaturatedPoolTimesOut() throws SQLException {
+		when(pool.getConnection()).thenReturn(mock(Connection.class));
+		AdmissionControlDataSource dataSource = new AdmissionControlDataSource(pool, 1, Duration.ofMillis(50));
+
+		Connection held = dataSource.getConnection();
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+		verify(pool, times(1)).getConnection();
+
+		held.close();
+		dataSource.getConnection().close();
+		assertEquals(1, dataSource.getAvailablePermits());
+	}
+}
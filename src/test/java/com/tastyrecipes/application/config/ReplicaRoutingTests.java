@@ -0,0 +1,199 @@
+package com.tastyrecipes.application.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.dto.UserDto;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import com.tastyrecipes.application.security.UserPrincipal;
+import com.tastyrecipes.application.service.RecipeService;
+import com.tastyrecipes.application.service.ReviewService;
+import com.tastyrecipes.application.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+		"db.replicas.urls=" + ReplicaRoutingTests.REPLICA_URL,
+		"db.replicas.sticky-window=PT1M"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:recipe_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AuthenticationManager authenticationManager;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	private User cook;
+	private User reviewer;
+	private Recipe recipe;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		cook = userRepository.save(user("Cook", "cook@example.com"));
+		reviewer = userRepository.save(user("Reviewer", "reviewer@example.com"));
+
+		recipe = new Recipe();
+		recipe.setTitle("Primary Pancakes");
+		recipe.setDescription("Fluffy");
+		recipe.setIngredients("flour, eggs, milk");
+		recipe.setSteps("Whisk and fry");
+		recipe.setUser(cook);
+		recipe = recipeRepository.save(recipe);
+
+		// The replica gets a copy that differs only in the title, so each read shows where it went
+		List<String> script = jdbcTemplate.queryForList("SCRIPT", String.class);
+		replica.execute("DROP ALL OBJECTS");
+		script.forEach(replica::execute);
+		replica.update("UPDATE recipes SET title = 'Replica Pancakes' WHERE id = ?", recipe.getId());
+	}
+
+	@AfterEach
+	void signOut() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsReadFromTheReplicaAndWritesGoToThePrimary() {
+		assertEquals("Replica Pancakes", titleOfOnlyRecipe());
+		assertEquals("Replica Pancakes", recipeRepository.findSummaryById(recipe.getId()).orElseThrow().getTitle());
+		assertEquals("Primary Pancakes", jdbcTemplate.queryForObject(
+				"SELECT title FROM recipes WHERE id = ?", String.class, recipe.getId()));
+
+		signIn(reviewer);
+		reviewService.createReview(review(5), reviewer.getId());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reviews", Integer.class));
+		assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM reviews", Integer.class));
+	}
+
+	@Test
+	void usersReadTheirOwnWritesFromThePrimary() {
+		signIn(reviewer);
+		reviewService.createReview(review(4), reviewer.getId());
+
+		// The replica has not caught up with the new review yet
+		assertEquals("Primary Pancakes", titleOfOnlyRecipe());
+		assertEquals(1, reviewService.findByRecipeId(recipe.getId()).size());
+
+		signIn(cook);
+		assertEquals("Replica Pancakes", titleOfOnlyRecipe());
+		assertEquals(0, reviewService.findByRecipeId(recipe.getId()).size());
+	}
+
+	@Test
+	void newUsersCanLogInBeforeTheReplicaHasThem() {
+		// The replica was copied in seed(), so it never sees this account
+		userService.register(new UserDto(null, "Newcomer", "newcomer@example.com", "secret123"));
+		assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE email = 'newcomer@example.com'", Integer.class));
+
+		Authentication authentication = authenticationManager.authenticate(
+				new UsernamePasswordAuthenticationToken("newcomer@example.com", "secret123"));
+		assertEquals("newcomer@example.com", ((UserPrincipal) authentication.getPrincipal()).getEmail());
+		assertTrue(userService.existsByEmail("newcomer@example.com"));
+
+		UserPrincipal newcomer = (UserPrincipal) authentication.getPrincipal();
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		assertEquals("Newcomer", userService.findById(newcomer.getId()).getName());
+	}
+
+	@Test
+	void streamedResponsesRouteLikeTheRequestThatStartedThem() throws Exception {
+		assertEquals("Replica Pancakes", streamedTitleOfOnlyRecipe());
+
+		// The body is written on an async executor thread, which must still see who is asking
+		readYourWrites.markWrite(cook.getId());
+		assertEquals("Primary Pancakes", streamedTitleOfOnlyRecipe());
+	}
+
+	private String streamedTitleOfOnlyRecipe() throws Exception {
+		UserPrincipal principal = new UserPrincipal(cook.getId(), cook.getName(), cook.getEmail(), cook.getPassword());
+		MvcResult started = mockMvc.perform(get("/api/users/recipes")
+				.with(SecurityMockMvcRequestPostProcessors.user(principal))).andReturn();
+		String body = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString();
+		JsonNode recipes = objectMapper.readTree(body).get("data");
+		assertEquals(1, recipes.size());
+		return recipes.get(0).get("title").asText();
+	}
+
+	private String titleOfOnlyRecipe() {
+		List<RecipeDto> recipes = recipeService.findSummariesByUserId(cook.getId());
+		assertEquals(1, recipes.size());
+		return recipes.get(0).getTitle();
+	}
+
+	private void signIn(User user) {
+		UserPrincipal principal = new UserPrincipal(user.getId(), user.getName(), user.getEmail(), user.getPassword());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private ReviewDto review(int rating) {
+		ReviewDto review = new ReviewDto();
+		review.setRecipeId(recipe.getId());
+		review.setRating(rating);
+		review.setComment("Made these for breakfast");
+		return review;
+	}
+
+	private static User user(String name, String email) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setPassword("secret");
+		return user;
+	}
+}
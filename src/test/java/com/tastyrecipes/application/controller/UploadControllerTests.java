@@ -0,0 +1,103 @@
+package com.tastyrecipes.application.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UploadControllerTests {
+
+	private static final String HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+	private static final String URL = "/uploads/01/23/" + HASH + ".png";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void writeFile() throws IOException {
+		Path file = Paths.get("target/test-uploads/01/23", HASH + ".png");
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, "0123456789");
+		Files.deleteIfExists(file.resolveSibling(HASH + ".png.gz"));
+	}
+
+	@Test
+	void contentAddressedFilesAreImmutableAndRevalidatedByEtag() throws Exception {
+		mockMvc.perform(get(URL))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+				.andExpect(content().string("0123456789"));
+
+		mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	void servesSingleByteRanges() throws Exception {
+		mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+				.andExpect(content().string("2345"));
+
+		mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=20-30"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+	}
+
+	@Test
+	void prefersPrecompressedSiblingWhenAccepted() throws Exception {
+		Files.writeString(Paths.get("target/test-uploads/01/23", HASH + ".png.gz"), "gz");
+
+		mockMvc.perform(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "-gzip\""))
+				.andExpect(content().string("gz"));
+
+		mockMvc.perform(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	void servesLegacyFilenamesThatArePercentEncoded() throws Exception {
+		Path legacy = Paths.get("target/test-uploads", "5f0c2a7e-1d2b-4c3d-8e9f-0a1b2c3d4e5f_lemon tart (2).png");
+		Files.writeString(legacy, "legacy");
+
+		mockMvc.perform(get(URI.create("/uploads/5f0c2a7e-1d2b-4c3d-8e9f-0a1b2c3d4e5f_lemon%20tart%20%282%29.png")))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=86400"))
+				.andExpect(content().string("legacy"));
+	}
+
+	@Test
+	void rejectsPathsOutsideTheUploadDirectory() throws Exception {
+		mockMvc.perform(get("/uploads/../pom.xml"))
+				.andExpect(status().is4xxClientError());
+		mockMvc.perform(get(URI.create("/uploads/%2E%2E/%2E%2E/pom.xml")))
+				.andExpect(status().is4xxClientError());
+		mockMvc.perform(get(URI.create("/uploads/..%2F..%2Fpom.xml")))
+				.andExpect(status().is4xxClientError());
+		mockMvc.perform(get("/uploads/01/23/missing.png"))
+				.andExpect(status().isNotFound());
+	}
+}
@@ -0,0 +1,150 @@
+package com.tastyrecipes.application.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.Review;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReviewRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import com.tastyrecipes.application.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerStreamingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private UserController userController;
+
+	private User cook;
+
+	private UserPrincipal principal;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+
+		cook = new User();
+		cook.setName("Cook");
+		cook.setEmail("cook@example.com");
+		cook.setPassword("secret");
+		cook = userRepository.save(cook);
+		principal = new UserPrincipal(cook.getId(), cook.getName(), cook.getEmail(), cook.getPassword());
+
+		for (String title : new String[]{"Bread", "Apple pie", "Crumble"}) {
+			Recipe recipe = new Recipe();
+			recipe.setTitle(title);
+			recipe.setDescription("Tasty");
+			recipe.setIngredients("flour");
+			recipe.setSteps("Bake");
+			recipe.setUser(cook);
+			recipe = recipeRepository.save(recipe);
+
+			Review review = new Review();
+			review.setUser(cook);
+			review.setRecipe(recipe);
+			review.setRating(title.length() % 5 + 1);
+			reviewRepository.save(review);
+		}
+	}
+
+	@Test
+	void streamsJsonEnvelopeWithPagination() throws Exception {
+		String body = fetch(get("/api/users/recipes")
+				.param("sortBy", "title").param("direction", "asc").param("page", "0").param("size", "2"));
+
+		JsonNode json = objectMapper.readTree(body);
+		assertEquals(true, json.get("success").asBoolean());
+		assertEquals(3, json.get("totalElements").asLong());
+		assertEquals(false, json.get("last").asBoolean());
+		assertEquals(2, json.get("data").size());
+		assertEquals("Apple pie", json.get("data").get(0).get("title").asText());
+		assertEquals("Bread", json.get("data").get(1).get("title").asText());
+	}
+
+	@Test
+	void streamsNdjsonWhenAccepted() throws Exception {
+		MvcResult result = fetchResult(get("/api/users/" + cook.getId() + "/recipes")
+				.param("sortBy", "title")
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE));
+
+		String[] lines = result.getResponse().getContentAsString().strip().split("\n");
+		assertEquals(3, lines.length);
+		assertEquals("Crumble", objectMapper.readTree(lines[0]).get("title").asText());
+		assertEquals("false", result.getResponse().getHeader("X-Has-More"));
+	}
+
+	@Test
+	void ndjsonSignalsThatAPageWasCutShort() throws Exception {
+		MvcResult result = fetchResult(get("/api/users/recipes").param("size", "2")
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE));
+
+		assertEquals(2, result.getResponse().getContentAsString().strip().split("\n").length);
+		assertEquals("true", result.getResponse().getHeader("X-Has-More"));
+	}
+
+	@Test
+	void capsReviewStreamAtTheMaximumPageSize() throws Exception {
+		ReflectionTestUtils.setField(userController, "maxPageSize", 2);
+		try {
+			JsonNode json = objectMapper.readTree(fetch(get("/api/users/reviews").param("sortBy", "rating").param("size", "2")));
+			assertEquals(2, json.get("data").size());
+			assertEquals(5, json.get("data").get(0).get("rating").asInt());
+
+			mockMvc.perform(get("/api/users/reviews").param("size", "3").with(user(principal)))
+					.andExpect(status().isBadRequest());
+		} finally {
+			ReflectionTestUtils.setField(userController, "maxPageSize", 1000);
+		}
+	}
+
+	@Test
+	void rejectsUnknownSortFieldBeforeStreaming() throws Exception {
+		mockMvc.perform(get("/api/users/reviews").param("sortBy", "password").with(user(principal)))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String fetch(MockHttpServletRequestBuilder request) throws Exception {
+		return fetchResult(request).getResponse().getContentAsString();
+	}
+
+	private MvcResult fetchResult(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult started = mockMvc.perform(request.with(user(principal))).andReturn();
+		return mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+}
@@ -0,0 +1,78 @@
+package com.tastyrecipes.application.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecipeLeaderboardsTests {
+
+	private final RecipeLeaderboards leaderboards = new RecipeLeaderboards(10, Duration.ofDays(3));
+
+	@Test
+	void topRatedPrefersWellSupportedAveragesOverSingleReviews() {
+		LocalDateTime now = LocalDateTime.now();
+		leaderboards.addReview(1L, 5, now);
+		for (int i = 0; i < 50; i++) {
+			leaderboards.addReview(2L, 4, now);
+			leaderboards.addReview(3L, 2, now);
+		}
+		leaderboards.rescoreTopRated();
+
+		assertEquals(List.of(2L, 1L, 3L), ids(leaderboards.topRated(10)));
+
+		leaderboards.removeRecipe(2L);
+		assertEquals(List.of(1L, 3L), ids(leaderboards.topRated(10)));
+	}
+
+	@Test
+	void trendingFavoursRecentReviewsAndFollowsEdits() {
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < 3; i++) {
+			leaderboards.addReview(1L, 5, now.minusDays(14));
+		}
+		leaderboards.addReview(2L, 4, now.minusHours(1));
+
+		List<RecipeLeaderboards.ScoredRecipe> trending = leaderboards.trending(10);
+		assertEquals(List.of(2L, 1L), ids(trending));
+		// Three fives from two weeks ago with a three-day half-life are worth 15 / 2^(14/3)
+		assertEquals(15 / Math.pow(2, 14 / 3.0), trending.get(1).score(), 0.01);
+
+		leaderboards.changeRating(2L, 4, 1, now.minusHours(1));
+		leaderboards.addReview(1L, 3, now);
+		assertEquals(List.of(1L, 2L), ids(leaderboards.trending(10)));
+
+		leaderboards.removeReview(2L, 1, now.minusHours(1));
+		assertEquals(List.of(1L), ids(leaderboards.trending(10)));
+	}
+
+	@Test
+	void snapshotRoundTripsTotals(@TempDir Path dir) throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		leaderboards.addReview(1L, 5, now);
+		leaderboards.addReview(1L, 3, now.minusDays(1));
+		leaderboards.addReview(2L, 4, now);
+		Path file = dir.resolve("leaderboards.snap");
+
+		LeaderboardSnapshot.write(file, 123L, leaderboards.decayPerSecond(), leaderboards.snapshot());
+		LeaderboardSnapshot.Snapshot snapshot = LeaderboardSnapshot.read(file);
+
+		assertEquals(123L, snapshot.createdAtMillis());
+		assertEquals(leaderboards.snapshot(), snapshot.stats());
+
+		RecipeLeaderboards restored = new RecipeLeaderboards(10, Duration.ofDays(3));
+		restored.replaceAll(snapshot.stats());
+		assertEquals(ids(leaderboards.trending(10)), ids(restored.trending(10)));
+		assertEquals(8L, restored.snapshot().get(1L).ratingSum());
+		assertEquals(2, restored.snapshot().get(1L).reviewCount());
+	}
+
+	private static List<Long> ids(List<RecipeLeaderboards.ScoredRecipe> recipes) {
+		return recipes.stream().map(RecipeLeaderboards.ScoredRecipe::recipeId).toList();
+	}
+}
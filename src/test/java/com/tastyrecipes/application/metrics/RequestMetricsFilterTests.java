@@ -0,0 +1,56 @@
+package com.tastyrecipes.application.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,prometheus")
+@AutoConfigureObservability(tracing = false)
+@AutoConfigureMockMvc
+class RequestMetricsFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void recordsQueriesPerRequestAndServiceTimings() throws Exception {
+		mockMvc.perform(get("/api/recipes/987654")).andExpect(status().isNotFound());
+
+		DistributionSummary queries = meterRegistry.find("http.server.requests.queries")
+				.tag("uri", "/api/recipes/{id}").summary();
+		assertNotNull(queries);
+		assertTrue(queries.count() >= 1);
+		assertTrue(queries.totalAmount() >= 1);
+
+		assertFalse(meterRegistry.find("service.invocations").tag("class", "RecipeService")
+				.tag("exception", "ResourceNotFoundException").timers().isEmpty());
+	}
+
+	@Test
+	void prometheusEndpointRequiresAuthentication() throws Exception {
+		mockMvc.perform(get("/api/recipes/987654"));
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(user("scraper")))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_queries")));
+	}
+}
@@ -0,0 +1,67 @@
+package com.tastyrecipes.application.recommend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationModelBuilderTests {
+
+	private static final long PANCAKES = 1L;
+	private static final long WAFFLES = 2L;
+	private static final long CREPES = 3L;
+	private static final long CHILLI = 4L;
+
+	private final ForkJoinPool pool = new ForkJoinPool(2);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void similarRecipesAreThoseRatedAlikeByTheSameUsers() {
+		RecommendationModelBuilder builder = new RecommendationModelBuilder();
+		// Breakfast fans love pancakes, waffles and crepes and dislike chilli; one user is the opposite
+		for (long user = 10; user < 14; user++) {
+			builder.add(user, PANCAKES, 5);
+			builder.add(user, WAFFLES, 5);
+			builder.add(user, CREPES, 4);
+			builder.add(user, CHILLI, 1);
+		}
+		builder.add(20L, PANCAKES, 1);
+		builder.add(20L, CHILLI, 5);
+
+		RecommendationModel model = builder.build(2, 0f, pool);
+
+		List<RecommendationIndex.ScoredRecipe> similar = model.similar(PANCAKES, 10);
+		assertEquals(2, similar.size());
+		assertEquals(List.of(WAFFLES, CREPES), similar.stream().map(RecommendationIndex.ScoredRecipe::recipeId).toList());
+		assertTrue(similar.get(0).score() >= similar.get(1).score());
+		assertTrue(model.similar(CHILLI, 10).isEmpty());
+		assertTrue(model.similar(99L, 10).isEmpty());
+	}
+
+	@Test
+	void recommendsUnratedNeighboursOfLikedRecipes() {
+		RecommendationModelBuilder builder = new RecommendationModelBuilder();
+		for (long user = 10; user < 14; user++) {
+			builder.add(user, PANCAKES, 5);
+			builder.add(user, WAFFLES, 5);
+			builder.add(user, CHILLI, 1);
+		}
+		// Likes pancakes, has not tried waffles
+		builder.add(30L, PANCAKES, 5);
+		builder.add(30L, CHILLI, 2);
+
+		RecommendationModel model = builder.build(10, 1f, pool);
+
+		List<RecommendationIndex.ScoredRecipe> recommended = model.recommendFor(30L, 5);
+		assertEquals(List.of(WAFFLES), recommended.stream().map(RecommendationIndex.ScoredRecipe::recipeId).toList());
+		assertTrue(model.recommendFor(99L, 5).isEmpty());
+	}
+}
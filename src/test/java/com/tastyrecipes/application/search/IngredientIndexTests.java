@@ -0,0 +1,56 @@
+package com.tastyrecipes.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IngredientIndexTests {
+
+	private final IngredientIndex index = new IngredientIndex();
+
+	@Test
+	void parserStripsQuantitiesUnitsAndNotes() {
+		Set<String> names = IngredientParser.parse(
+				"2 cups chopped tomatoes (ripe, about 4)\n3 large eggs, 1 tbsp olive oil; salt and pepper");
+
+		assertEquals(List.of("tomato", "egg", "olive oil", "salt", "pepper"), List.copyOf(names));
+	}
+
+	@Test
+	void matchRanksByCoverageAndListsMissingIngredients() {
+		index.index(1L, List.of("egg", "flour", "milk"));
+		index.index(2L, List.of("egg", "flour", "milk", "sugar", "butter"));
+		index.index(3L, List.of("egg"));
+		index.index(4L, List.of("beef", "onion"));
+
+		List<IngredientIndex.PantryMatch> matches = index.match(List.of("egg", "flour", "milk"), 10, null);
+
+		assertEquals(List.of(1L, 3L, 2L), matches.stream().map(IngredientIndex.PantryMatch::recipeId).toList());
+		assertEquals(3, matches.get(2).matched());
+		assertEquals(List.of("sugar", "butter"), matches.get(2).missing());
+
+		assertEquals(List.of(1L, 3L), index.match(List.of("egg", "flour", "milk"), 10, 1).stream()
+				.map(IngredientIndex.PantryMatch::recipeId).toList());
+	}
+
+	@Test
+	void reindexedAndRemovedRecipesReuseSlots() {
+		for (long id = 1; id <= 200; id++) {
+			index.index(id, List.of("rice", id % 2 == 0 ? "chicken" : "tofu"));
+		}
+		for (long id = 1; id <= 100; id++) {
+			index.remove(id);
+		}
+		index.index(150L, List.of("chicken"));
+
+		List<IngredientIndex.PantryMatch> matches = index.match(List.of("chicken"), 3, null);
+
+		assertEquals(150L, matches.get(0).recipeId());
+		assertEquals(1.0, matches.get(0).coverage());
+		assertEquals(100, index.size());
+		assertEquals(50, index.match(List.of("tofu"), 100, null).size());
+	}
+}
@@ -0,0 +1,61 @@
+package com.tastyrecipes.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeSearchIndexTests {
+
+	private final RecipeSearchIndex index = new RecipeSearchIndex(3.0, 1.0, 1.5);
+
+	@Test
+	void titleMatchesOutrankRepeatedDescriptionMatches() {
+		// Every field has the same length in every recipe, so only weights and frequencies differ
+		index.index(1L, "Lemon tart", "Sweet pastry crust", "flour butter");
+		index.index(2L, "Berry tart", "Sweet lemon crust", "flour butter");
+		index.index(3L, "Plum tart", "Lemon lemon crust", "flour butter");
+		index.index(4L, "Apple tart", "Sweet pastry crust", "flour butter");
+
+		assertEquals(List.of(1L, 3L, 2L), ids(index.search("lemons")));
+	}
+
+	@Test
+	void ingredientsOutweighDescriptionAndTiesGoToTheNewestRecipe() {
+		index.index(1L, "Soup", "Warm carrot", "water salt");
+		index.index(2L, "Stew", "Warm onion", "carrot salt");
+		index.index(3L, "Broth", "Warm onion", "carrot salt");
+
+		assertEquals(List.of(3L, 2L, 1L), ids(index.search("carrot")));
+	}
+
+	@Test
+	void recipesMatchingMoreTermsRankFirst() {
+		index.index(1L, "Chicken curry", "Spicy", "chicken rice");
+		index.index(2L, "Chicken soup", "Mild", "chicken noodles");
+		index.index(3L, "Vegetable curry", "Spicy", "potato rice");
+
+		List<RecipeSearchIndex.ScoredRecipe> results = index.search("chicken curry");
+		assertEquals(1L, results.get(0).recipeId());
+		assertEquals(3, results.size());
+	}
+
+	@Test
+	void removedAndReindexedRecipesAreSearchedAsTheyAreNow() {
+		index.index(1L, "Lemon tart", "Sweet", "lemon");
+		index.index(2L, "Lemon cake", "Sweet", "lemon");
+
+		index.remove(1L);
+		index.index(2L, "Orange cake", "Sweet", "orange");
+
+		assertTrue(index.search("lemon").isEmpty());
+		assertEquals(List.of(2L), ids(index.search("orange")));
+		assertEquals(1, index.size());
+	}
+
+	private static List<Long> ids(List<RecipeSearchIndex.ScoredRecipe> results) {
+		return results.stream().map(RecipeSearchIndex.ScoredRecipe::recipeId).toList();
+	}
+}
@@ -0,0 +1,74 @@
+package com.tastyrecipes.application.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchIndexSegmentTests {
+
+	@TempDir
+	private Path dir;
+
+	private final List<RecipeSearchIndex.IndexedDocument> documents = List.of(
+			RecipeSearchIndex.analyze(7L, "Lemon tart", "Sweet lemon pastry", "lemons, flour, butter"),
+			RecipeSearchIndex.analyze(9L, "Pancakes", null, "flour, eggs, milk"));
+
+	@Test
+	void documentsSurviveAWriteAndRead() throws IOException {
+		Path file = dir.resolve("recipes.seg");
+		SearchIndexSegment.write(file, 1234L, documents);
+
+		SearchIndexSegment.Snapshot snapshot = SearchIndexSegment.read(file);
+
+		assertEquals(1234L, snapshot.createdAtMillis());
+		assertEquals(documents.size(), snapshot.documents().size());
+		for (int i = 0; i < documents.size(); i++) {
+			RecipeSearchIndex.IndexedDocument expected = documents.get(i);
+			RecipeSearchIndex.IndexedDocument actual = snapshot.documents().get(i);
+			assertEquals(expected.id(), actual.id());
+			assertArrayEquals(expected.fieldLengths(), actual.fieldLengths());
+			assertEquals(expected.termFrequencies().keySet(), actual.termFrequencies().keySet());
+			expected.termFrequencies().forEach((term, tf) -> assertArrayEquals(tf, actual.termFrequencies().get(term), term));
+		}
+	}
+
+	@Test
+	void corruptSegmentIsRejected() throws IOException {
+		Path file = dir.resolve("recipes.seg");
+		SearchIndexSegment.write(file, 1234L, documents);
+		byte[] bytes = Files.readAllBytes(file);
+		// A term frequency of the last document, just before the checksum
+		bytes[bytes.length - 9] ^= 1;
+		Files.write(file, bytes);
+
+		IOException e = assertThrows(IOException.class, () -> SearchIndexSegment.read(file));
+		assertEquals("Search index segment checksum mismatch: " + file, e.getMessage());
+	}
+
+	@Test
+	void truncatedSegmentIsRejected() throws IOException {
+		Path file = dir.resolve("recipes.seg");
+		SearchIndexSegment.write(file, 1234L, documents);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+		assertThrows(IOException.class, () -> SearchIndexSegment.read(file));
+	}
+
+	@Test
+	void segmentFromAnotherFormatIsRejected() throws IOException {
+		Path file = dir.resolve("recipes.seg");
+		Files.write(file, new byte[]{'R', 'S', 'I', 'X', 0, 0, 0, 9});
+
+		assertThrows(IOException.class, () -> SearchIndexSegment.read(file));
+	}
+}
@@ -0,0 +1,66 @@
+package com.tastyrecipes.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestIndexTests {
+
+	private final SuggestIndex index = new SuggestIndex();
+
+	@Test
+	void titlesCompleteFromAnyWordByPopularity() {
+		index.index(1L, "Thai Green Curry", List.of("coconut milk", "chicken"), 4);
+		index.index(2L, "Chicken Curry", List.of("chicken", "onion"), 9);
+		index.index(3L, "Crème Brûlée", List.of("cream", "egg"), 0);
+		index.index(4L, "chicken curry!", List.of("chicken"), 1);
+
+		assertEquals(List.of("Chicken Curry", "Thai Green Curry"), texts(index.suggestTitles("cur", 5)));
+		assertEquals(2L, index.suggestTitles("chicken c", 5).get(0).recipeId());
+		assertEquals(List.of("Crème Brûlée"), texts(index.suggestTitles("creme bru", 5)));
+		assertEquals(List.of("chicken", "coconut milk", "cream"), texts(index.suggestIngredients("c", 5)));
+		assertEquals(3L, index.suggestIngredients("chick", 5).get(0).weight());
+
+		index.adjustReviewCount(1L, 10);
+		assertEquals(List.of("Thai Green Curry", "Chicken Curry"), texts(index.suggestTitles("curry", 5)));
+
+		index.remove(2L);
+		index.remove(4L);
+		assertEquals(List.of("Thai Green Curry"), texts(index.suggestTitles("c", 5)).subList(0, 1));
+		assertEquals(1L, index.suggestIngredients("chicken", 5).get(0).weight());
+		assertTrue(index.suggestIngredients("onion", 5).isEmpty());
+	}
+
+	@Test
+	void trieReturnsCompletionsInWeightOrderAfterSplitsAndMerges() {
+		PrefixTrie<String> trie = new PrefixTrie<>();
+		String[] words = {"tea", "team", "teapot", "ten", "tend", "to", "tomato", "tomatillo", "t"};
+		for (int i = 0; i < words.length; i++) {
+			trie.add(words[i], words[i], i);
+		}
+		assertEquals(List.of("tomatillo", "tomato", "to"), keys(trie.complete("to")));
+
+		trie.remove("tomato", "tomato");
+		trie.remove("to", "to");
+		trie.remove("team", "team");
+		assertEquals(List.of("tomatillo"), keys(trie.complete("tom")));
+		assertEquals(List.of("tend", "ten", "teapot", "tea"), keys(trie.complete("te")));
+		assertEquals(List.of("t", "tomatillo", "tend", "ten", "teapot", "tea"), keys(trie.complete("")));
+		assertEquals(6, trie.size());
+	}
+
+	private static List<String> texts(List<SuggestIndex.Suggestion> suggestions) {
+		return suggestions.stream().map(SuggestIndex.Suggestion::text).toList();
+	}
+
+	private static List<String> keys(Iterator<PrefixTrie.Entry<String>> completions) {
+		List<String> keys = new ArrayList<>();
+		completions.forEachRemaining(entry -> keys.add(entry.key()));
+		return keys;
+	}
+}
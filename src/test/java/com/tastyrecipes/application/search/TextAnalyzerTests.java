@@ -0,0 +1,32 @@
+package com.tastyrecipes.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalyzerTests {
+
+	@Test
+	void lowercasesSplitsOnPunctuationAndDropsStopWords() {
+		assertEquals(List.of("whisk", "egg", "sugar", "10", "minut"),
+				TextAnalyzer.analyze("Whisk the EGGS with sugar, for 10 minutes!"));
+		// Single characters and stop words are not worth searching for
+		assertEquals(List.of("rest"), TextAnalyzer.analyze("A & B, then the rest of it"));
+		assertTrue(TextAnalyzer.analyze(null).isEmpty());
+	}
+
+	@Test
+	void wordFormsShareAStem() {
+		assertEquals(List.of("bak", "bak", "bak", "bak"), TextAnalyzer.analyze("bake baked baking bakes"));
+		assertEquals(List.of("chop", "chop", "potato", "berry"), TextAnalyzer.analyze("chopped chopping potatoes berries"));
+		assertEquals(List.of("dish", "glass", "hummus"), TextAnalyzer.analyze("dishes glasses hummus"));
+	}
+
+	@Test
+	void queriesAreAnalyzedLikeDocuments() {
+		assertEquals(TextAnalyzer.analyze("Baked Potatoes"), TextAnalyzer.analyze("baking potato"));
+	}
+}
@@ -0,0 +1,108 @@
+package com.tastyrecipes.application.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTests {
+
+	private static final String SECRET = "tastyRecipesSecretKey123456789012345678901234567890";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final UserDetails cook = new User("cook@example.com", "secret", List.of());
+
+	@Test
+	void recentlyVerifiedTokenIsAnsweredFromTheCache() {
+		JwtUtil jwtUtil = jwtUtil(86_400_000, 100);
+		String token = jwtUtil.generateToken(cook);
+
+		assertEquals("cook@example.com", jwtUtil.verify(token).getSubject());
+		assertEquals("cook@example.com", jwtUtil.verify(token).getSubject());
+
+		assertEquals(1, verifications("verified"));
+		assertEquals(1, verifications("cached"));
+	}
+
+	@Test
+	void expiredTokenIsNeverServedFromTheCache() throws InterruptedException {
+		JwtUtil jwtUtil = jwtUtil(1_000, 100);
+		String token = jwtUtil.generateToken(cook);
+		Date expiration = jwtUtil.verify(token).getExpiration();
+
+		while (!new Date().after(expiration)) {
+			Thread.sleep(50);
+		}
+
+		assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+		assertEquals(0, verifications("cached"));
+		assertEquals(1, verifications("rejected"));
+	}
+
+	@Test
+	void forgedTokenForACachedSubjectIsRejected() {
+		JwtUtil jwtUtil = jwtUtil(86_400_000, 100);
+		String token = jwtUtil.generateToken(cook);
+		jwtUtil.verify(token);
+
+		String forged = Jwts.builder()
+				.setSubject(cook.getUsername())
+				.setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor("someOtherSecretKey12345678901234567890123456789".getBytes(StandardCharsets.UTF_8)),
+						SignatureAlgorithm.HS256)
+				.compact();
+		assertThrows(JwtException.class, () -> jwtUtil.verify(forged));
+
+		// The cached token's signature on a payload naming someone else
+		String[] parts = token.split("\\.");
+		String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				("{\"sub\":\"admin@example.com\",\"exp\":" + (System.currentTimeMillis() / 1000 + 60) + "}")
+						.getBytes(StandardCharsets.UTF_8));
+		String tampered = parts[0] + "." + payload + "." + parts[2];
+		assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+
+		assertEquals(2, verifications("rejected"));
+		assertEquals(0, verifications("cached"));
+	}
+
+	@Test
+	void zeroMaxSizeDisablesTheCache() {
+		JwtUtil jwtUtil = jwtUtil(86_400_000, 0);
+		String token = jwtUtil.generateToken(cook);
+
+		jwtUtil.verify(token);
+		jwtUtil.verify(token);
+
+		assertEquals(2, verifications("verified"));
+		assertEquals(0, verifications("cached"));
+	}
+
+	private JwtUtil jwtUtil(long expiration, int verifiedCacheSize) {
+		JwtUtil jwtUtil = new JwtUtil();
+		ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", expiration);
+		ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", verifiedCacheSize);
+		ReflectionTestUtils.setField(jwtUtil, "meterRegistry", registry);
+		jwtUtil.init();
+		return jwtUtil;
+	}
+
+	private long verifications(String result) {
+		return registry.get("security.jwt.verifications").tag("result", result).timer().count();
+	}
+}
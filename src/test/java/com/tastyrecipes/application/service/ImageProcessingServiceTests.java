@@ -0,0 +1,43 @@
+package com.tastyrecipes.application.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageProcessingServiceTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void refusesToDecodeImagesOverThePixelLimit() throws Exception {
+		ImageProcessingService service = new ImageProcessingService(1, 1);
+		ReflectionTestUtils.setField(service, "maxPixels", 1_000_000L);
+
+		// A flat 4000x4000 PNG compresses to a few kilobytes but decodes to 64 MB
+		Path bomb = dir.resolve("bomb.png");
+		ImageIO.write(new BufferedImage(4000, 4000, BufferedImage.TYPE_BYTE_BINARY), "png", bomb.toFile());
+		assertTrue(Files.size(bomb) < 100_000);
+		assertNull(service.readImage(bomb));
+
+		Path photo = dir.resolve("photo.png");
+		ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "png", photo.toFile());
+		BufferedImage decoded = service.readImage(photo);
+		assertNotNull(decoded);
+		assertEquals(800, decoded.getWidth());
+
+		Path text = dir.resolve("notes.txt");
+		Files.writeString(text, "not an image");
+		assertNull(service.readImage(text));
+	}
+}
@@ -0,0 +1,155 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.ImageBlobRepository;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ImageStoreTests {
+
+	@Autowired
+	private ImageStore imageStore;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private ImageBlobRepository blobRepository;
+
+	private User user;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		blobRepository.deleteAll();
+
+		user = new User();
+		user.setName("Cook");
+		user.setEmail("cook@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+	}
+
+	@Test
+	void identicalUploadsShareOneReferenceCountedFile() throws IOException {
+		byte[] png = png();
+		Recipe first = recipeService.replaceImage(newRecipe().getId(), user.getId(), new ByteArrayInputStream(png), png.length);
+		Recipe second = recipeService.replaceImage(newRecipe().getId(), user.getId(), new ByteArrayInputStream(png), png.length);
+
+		Path stored = Paths.get(first.getImageUrl());
+		String hash = ImageStore.hashOf(first.getImageUrl());
+		assertEquals(first.getImageUrl(), second.getImageUrl());
+		assertEquals(Paths.get("target/test-uploads", hash.substring(0, 2), hash.substring(2, 4), hash + ".png"), stored);
+		assertEquals(2, blobRepository.findById(hash).orElseThrow().getRefCount());
+
+		recipeService.deleteRecipe(first.getId(), user.getId());
+		assertEquals(1, blobRepository.findById(hash).orElseThrow().getRefCount());
+
+		recipeService.deleteRecipe(second.getId(), user.getId());
+		assertEquals(0, blobRepository.findById(hash).orElseThrow().getRefCount());
+		assertTrue(Files.exists(stored));
+
+		// Still within the grace period
+		imageStore.collectGarbage();
+		assertTrue(Files.exists(stored));
+
+		collectGarbageWithoutGracePeriod();
+		assertFalse(Files.exists(stored));
+		assertFalse(blobRepository.existsById(hash));
+	}
+
+	@Test
+	void legacyFilesAreOnlyCollectedOnceNoRecipePointsAtThem() throws IOException {
+		Path legacy = Paths.get("target/test-uploads", "1b9d6bcd-bbfd-4b2d-9b5d-ab8dfbbd4bed_pancakes.png");
+		Path neverReleased = Paths.get("target/test-uploads", "0c4a1f52-5d1e-4e8a-8f0e-6f1f2c3d4e5f_sample.png");
+		Files.createDirectories(legacy.getParent());
+		Files.write(legacy, png());
+		Files.write(neverReleased, png());
+		Recipe first = newRecipe();
+		Recipe second = newRecipe();
+		first.setImageUrl(legacy.toString());
+		// The same file under another spelling of the upload directory
+		second.setImageUrl(legacy.toAbsolutePath().toString());
+		recipeRepository.save(first);
+		recipeRepository.save(second);
+		ReflectionTestUtils.setField(imageStore, "collectLegacy", true);
+
+		recipeService.deleteRecipe(first.getId(), user.getId());
+		assertTrue(Files.exists(legacy));
+		collectGarbageWithoutGracePeriod();
+		assertTrue(Files.exists(legacy));
+
+		recipeService.deleteRecipe(second.getId(), user.getId());
+		assertTrue(Files.exists(legacy));
+		try {
+			collectGarbageWithoutGracePeriod();
+		} finally {
+			ReflectionTestUtils.setField(imageStore, "collectLegacy", false);
+		}
+		assertFalse(Files.exists(legacy));
+		assertTrue(Files.exists(neverReleased));
+		Files.delete(neverReleased);
+	}
+
+	@Test
+	void rejectsContentThatIsNotAnImage() {
+		byte[] text = "not an image".getBytes();
+		assertThrows(IllegalArgumentException.class,
+				() -> imageStore.store(new ByteArrayInputStream(text), text.length));
+	}
+
+	private void collectGarbageWithoutGracePeriod() {
+		ReflectionTestUtils.setField(imageStore, "gracePeriod", Duration.ofMillis(-1));
+		try {
+			imageStore.collectGarbage();
+		} finally {
+			ReflectionTestUtils.setField(imageStore, "gracePeriod", Duration.ofHours(1));
+		}
+	}
+
+	private Recipe newRecipe() {
+		Recipe recipe = new Recipe();
+		recipe.setTitle("Pancakes");
+		recipe.setDescription("Fluffy");
+		recipe.setIngredients("flour, eggs");
+		recipe.setSteps("Mix and fry");
+		recipe.setUser(user);
+		return recipeRepository.save(recipe);
+	}
+
+	private static byte[] png() throws IOException {
+		BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(3, 3, 0xFF8800);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,135 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.dto.ImportResult;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RecipeBulkServiceTests {
+
+	@Autowired
+	private RecipeBulkService recipeBulkService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	private User user;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		ReflectionTestUtils.setField(recipeBulkService, "batchSize", 2);
+
+		user = new User();
+		user.setName("Cook");
+		user.setEmail("cook@example.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+	}
+
+	@Test
+	void importsValidNdjsonRecordsInBatchesAndReportsTheRest() throws IOException {
+		String ndjson = """
+				{"title":"Pancakes","description":"Fluffy","ingredients":"flour, eggs","steps":"Mix and fry"}
+				{"title":"","description":"No title","ingredients":"water","steps":"Boil"}
+
+				{"title":"Omelette","description":"Quick","ingredients":"eggs","steps":"Whisk and fry"}
+				{"title": "Broken"
+				{"title":"Salad","description":"Fresh","ingredients":"lettuce","steps":"Toss"}
+				""";
+
+		ImportResult result = recipeBulkService.importRecipes(stream(ndjson), RecipeBulkService.Format.NDJSON, user.getId());
+
+		assertEquals(3, result.getImported());
+		assertEquals(2, result.getFailed());
+		assertEquals(List.of(2L, 5L), result.getErrors().stream().map(ImportResult.RecordError::getLine).toList());
+		assertEquals("Title is required", result.getErrors().get(0).getMessage());
+
+		List<Recipe> recipes = recipeRepository.findByUser(user);
+		assertEquals(3, recipes.size());
+		assertTrue(recipes.stream().allMatch(recipe -> recipe.getCreatedAt() != null && recipe.getReviewCount() == 0));
+	}
+
+	@Test
+	void importsCsvWithQuotedMultiLineFields() throws IOException {
+		String csv = "title,description,ingredients,steps\r\n"
+				+ "Soup,\"Warm, hearty\",\"carrots\nonions\",\"Chop\n\"\"then\"\" simmer\"\r\n"
+				+ "Toast,Crisp,bread\r\n"
+				+ "Tea,Hot,leaves,Steep\r\n";
+
+		ImportResult result = recipeBulkService.importRecipes(stream(csv), RecipeBulkService.Format.CSV, user.getId());
+
+		assertEquals(2, result.getImported());
+		assertEquals(1, result.getFailed());
+		// The soup record spans lines 2 to 4
+		assertEquals(5L, result.getErrors().get(0).getLine());
+
+		Recipe soup = recipeRepository.findByUser(user).stream()
+				.filter(recipe -> recipe.getTitle().equals("Soup")).findFirst().orElseThrow();
+		assertEquals("Warm, hearty", soup.getDescription());
+		assertEquals("Chop\n\"then\" simmer", soup.getSteps());
+	}
+
+	@Test
+	void csvParseErrorReportsTheLineAndKeepsCommittedBatches() throws IOException {
+		String csv = "title,description,ingredients,steps\n"
+				+ "Soup,Warm,carrots,Simmer\n"
+				+ "Toast,Crisp,bread,Grill\n"
+				+ "Tea,Hot,leaves,Steep\n"
+				+ "Cake,\"Never closed,flour,Bake\n"
+				+ "Jam,Sweet,fruit,Boil\n";
+
+		ImportResult result = recipeBulkService.importRecipes(stream(csv), RecipeBulkService.Format.CSV, user.getId());
+
+		assertEquals(3, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(5L, result.getErrors().get(0).getLine());
+		assertEquals("Unterminated quoted field starting on line 5", result.getErrors().get(0).getMessage());
+		assertEquals(3, recipeRepository.findByUser(user).size());
+	}
+
+	@Test
+	void exportStreamsEveryRecipeAcrossPages() throws IOException {
+		ReflectionTestUtils.setField(recipeBulkService, "exportPageSize", 2);
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			ndjson.append("{\"title\":\"Recipe ").append(i)
+					.append("\",\"description\":\"d\",\"ingredients\":\"i\",\"steps\":\"s\"}\n");
+		}
+		recipeBulkService.importRecipes(stream(ndjson.toString()), RecipeBulkService.Format.NDJSON, user.getId());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			recipeBulkService.exportRecipes(out, RecipeBulkService.Format.NDJSON);
+		} finally {
+			ReflectionTestUtils.setField(recipeBulkService, "exportPageSize", 500);
+		}
+
+		List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+		assertEquals(5, lines.size());
+		assertTrue(lines.get(4).contains("\"title\":\"Recipe 4\""));
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
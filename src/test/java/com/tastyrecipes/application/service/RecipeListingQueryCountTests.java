@@ -0,0 +1,206 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.cache.RecipeCache;
+import com.tastyrecipes.application.dto.CursorPage;
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import com.tastyrecipes.application.search.RecipeSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RecipeListingQueryCountTests {
+
+	private static final int RECIPE_COUNT = 30;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private RecipeCache recipeCache;
+
+	@Autowired
+	private RecipeSearchIndex searchIndex;
+
+	private Statistics statistics;
+	private List<User> users;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		recipeCache.invalidateAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		users = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			User user = new User();
+			user.setName("Cook " + i);
+			user.setEmail("cook" + i + "@example.com");
+			user.setPassword("secret");
+			users.add(userRepository.save(user));
+		}
+
+		for (int i = 0; i < RECIPE_COUNT; i++) {
+			Recipe recipe = new Recipe();
+			recipe.setTitle("Recipe " + i);
+			recipe.setDescription("Description " + i);
+			recipe.setIngredients("flour, eggs");
+			recipe.setSteps("Mix and bake");
+			recipe.setUser(users.get(i % users.size()));
+			recipe = recipeRepository.save(recipe);
+
+			for (int r = 1; r < users.size(); r++) {
+				ReviewDto review = new ReviewDto();
+				review.setRecipeId(recipe.getId());
+				review.setRating(r + 2);
+				reviewService.createReview(review, users.get((i + r) % users.size()).getId());
+			}
+		}
+	}
+
+	@Test
+	void recipeListingStatementCountIsIndependentOfPageSize() {
+		long smallPage = countStatements(() -> recipeService.findAllSummaries(page(5)));
+		long largePage = countStatements(() -> recipeService.findAllSummaries(page(20)));
+
+		// One projection query plus the page count query
+		assertEquals(2, smallPage);
+		assertEquals(smallPage, largePage);
+	}
+
+	@Test
+	void listingCarriesAuthorAndRatingAggregates() {
+		Page<RecipeDto> page = recipeService.findAllSummaries(page(RECIPE_COUNT));
+
+		assertEquals(RECIPE_COUNT, page.getContent().size());
+		for (RecipeDto dto : page.getContent()) {
+			assertEquals(2, dto.getReviewCount());
+			assertEquals(3.5, dto.getAverageRating());
+			assertEquals(userRepository.findById(dto.getUserId()).orElseThrow().getName(), dto.getUserName());
+		}
+	}
+
+	@Test
+	void cursorPagesWalkTheFeedWithOneStatementEach() {
+		Set<Long> seen = new HashSet<>();
+		String cursor = "";
+		RecipeDto previous = null;
+
+		while (cursor != null) {
+			statistics.clear();
+			CursorPage<RecipeDto> page = recipeService.findSummariesAfterCursor(cursor, 7);
+			assertEquals(1, statistics.getPrepareStatementCount());
+
+			for (RecipeDto dto : page.getContent()) {
+				assertTrue(seen.add(dto.getId()));
+				if (previous != null) {
+					assertFalse(dto.getCreatedAt().isAfter(previous.getCreatedAt()));
+				}
+				previous = dto;
+			}
+			cursor = page.getNextCursor();
+		}
+
+		assertEquals(RECIPE_COUNT, seen.size());
+	}
+
+	@Test
+	void searchCursorPagesFollowRelevanceWithOneStatementEach() {
+		List<Long> expected = new ArrayList<>();
+		for (RecipeDto recipe : recipeService.findAllSummaries(page(RECIPE_COUNT))) {
+			// Repeating the term in some descriptions spreads the scores and leaves ties to break by id
+			searchIndex.index(recipe.getId(), recipe.getTitle(), "lentil ".repeat(1 + (int) (recipe.getId() % 3)),
+					"lentils, onion");
+		}
+		for (RecipeSearchIndex.ScoredRecipe match : searchIndex.search("lentil")) {
+			if (recipeRepository.existsById(match.recipeId())) {
+				expected.add(match.recipeId());
+			}
+		}
+		assertEquals(RECIPE_COUNT, expected.size());
+
+		List<Long> walked = new ArrayList<>();
+		String cursor = "";
+		while (cursor != null) {
+			statistics.clear();
+			CursorPage<RecipeDto> page = recipeService.searchRecipesAfterCursor("lentil", cursor, 7);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			page.getContent().forEach(recipe -> walked.add(recipe.getId()));
+			cursor = page.getNextCursor();
+		}
+
+		assertEquals(expected, walked);
+	}
+
+	@Test
+	void databaseSearchCursorIsRejectedOnceTheIndexIsReady() {
+		String cursor;
+		ReflectionTestUtils.setField(searchIndex, "ready", false);
+		try {
+			CursorPage<RecipeDto> first = recipeService.searchRecipesAfterCursor("Recipe", "", 10);
+			assertEquals(10, first.getContent().size());
+			cursor = first.getNextCursor();
+			assertEquals(10, recipeService.searchRecipesAfterCursor("Recipe", cursor, 10).getContent().size());
+		} finally {
+			ReflectionTestUtils.setField(searchIndex, "ready", true);
+		}
+
+		String fallbackCursor = cursor;
+		assertThrows(IllegalArgumentException.class,
+				() -> recipeService.searchRecipesAfterCursor("Recipe", fallbackCursor, 10));
+		assertThrows(IllegalArgumentException.class,
+				() -> recipeService.searchRecipesAfterCursor("Recipe", "", 101));
+	}
+
+	@Test
+	void userRecipesAreLoadedWithSingleStatement() {
+		long statements = countStatements(() -> recipeService.findSummariesByUserId(users.get(0).getId()));
+
+		assertEquals(1, statements);
+	}
+
+	private PageRequest page(int size) {
+		return PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+	}
+
+	private long countStatements(Runnable query) {
+		statistics.clear();
+		query.run();
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,102 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.dto.RecipeDto;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class RecipeServiceTests {
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private User cook;
+	private User reviewer;
+	private Recipe recipe;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+		cook = userRepository.save(user("Cook", "cook@example.com"));
+		reviewer = userRepository.save(user("Reviewer", "reviewer@example.com"));
+
+		recipe = new Recipe();
+		recipe.setTitle("Shakshuka");
+		recipe.setDescription("Eggs poached in tomato");
+		recipe.setIngredients("eggs, tomatoes, peppers");
+		recipe.setSteps("Simmer, crack, cover");
+		recipe.setUser(cook);
+		recipe = recipeRepository.save(recipe);
+	}
+
+	@Test
+	void editingARecipeKeepsAReviewCommittedSinceItWasLoaded() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> {
+			// Loaded here, so the update below flushes an entity that predates the review
+			recipeService.findById(recipe.getId());
+
+			try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+				executor.submit(() -> reviewService.createReview(review(4), reviewer.getId())).get();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+
+			RecipeDto edit = new RecipeDto();
+			edit.setTitle("Green Shakshuka");
+			edit.setDescription("Eggs poached in greens");
+			edit.setIngredients("eggs, spinach, leeks");
+			edit.setSteps("Wilt, crack, cover");
+			try {
+				recipeService.updateRecipe(recipe.getId(), edit, cook.getId(), null);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		Recipe updated = recipeRepository.findById(recipe.getId()).orElseThrow();
+		assertEquals("Green Shakshuka", updated.getTitle());
+		assertEquals(1, updated.getReviewCount());
+		assertEquals(4, updated.getRatingSum());
+	}
+
+	private ReviewDto review(int rating) {
+		ReviewDto review = new ReviewDto();
+		review.setRecipeId(recipe.getId());
+		review.setRating(rating);
+		review.setComment("Great brunch");
+		return review;
+	}
+
+	private static User user(String name, String email) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(email);
+		user.setPassword("secret");
+		return user;
+	}
+}
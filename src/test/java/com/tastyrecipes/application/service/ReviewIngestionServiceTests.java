@@ -0,0 +1,255 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.cache.ExistenceFilters;
+import com.tastyrecipes.application.dto.ReviewDto;
+import com.tastyrecipes.application.exception.ResourceNotFoundException;
+import com.tastyrecipes.application.exception.ServiceUnavailableException;
+import com.tastyrecipes.application.model.Recipe;
+import com.tastyrecipes.application.model.User;
+import com.tastyrecipes.application.repository.RecipeRepository;
+import com.tastyrecipes.application.repository.ReviewRepository;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {"reviews.write-behind.enabled=true", "reviews.write-behind.batch-size=8"})
+class ReviewIngestionServiceTests {
+
+	private static final int REVIEWERS = 40;
+
+	@Autowired
+	private ReviewIngestionService reviewIngestionService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoSpyBean
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private ExistenceFilters existenceFilters;
+
+	private List<User> users;
+	private Recipe recipe;
+
+	@BeforeEach
+	void seed() {
+		userRepository.deleteAll();
+
+		users = new ArrayList<>();
+		for (int i = 0; i < REVIEWERS; i++) {
+			User user = new User();
+			user.setName("Reviewer " + i);
+			user.setEmail("reviewer" + i + "@example.com");
+			user.setPassword("secret");
+			users.add(userRepository.save(user));
+		}
+
+		recipe = recipeRepository.save(recipe("Viral Noodles", users.get(0)));
+	}
+
+	@Test
+	void concurrentSubmissionsAreStoredInBatchesWithAggregatesUpdated() throws Exception {
+		List<Future<ReviewDto>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < REVIEWERS; i++) {
+				User user = users.get(i);
+				int rating = 1 + i % 5;
+				futures.add(executor.submit(() -> reviewIngestionService.submit(review(rating), user.getId(), user.getName())));
+			}
+		}
+
+		Set<Long> ids = new HashSet<>();
+		for (Future<ReviewDto> future : futures) {
+			ReviewDto stored = future.get();
+			assertNotNull(stored.getId());
+			ids.add(stored.getId());
+		}
+		assertEquals(REVIEWERS, ids.size());
+		assertEquals(REVIEWERS, reviewRepository.count());
+
+		Recipe updated = recipeRepository.findById(recipe.getId()).orElseThrow();
+		assertEquals(REVIEWERS, updated.getReviewCount());
+		assertEquals(REVIEWERS / 5 * (1 + 2 + 3 + 4 + 5), updated.getRatingSum());
+	}
+
+	@Test
+	void rejectsRepeatReviewsAndUnknownRecipes() {
+		User user = users.get(1);
+		reviewIngestionService.submit(review(4), user.getId(), user.getName());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> reviewIngestionService.submit(review(5), user.getId(), user.getName()));
+
+		ReviewDto unknown = review(3);
+		unknown.setRecipeId(recipe.getId() + 1000);
+		assertThrows(ResourceNotFoundException.class,
+				() -> reviewIngestionService.submit(unknown, user.getId(), user.getName()));
+		assertEquals(1, reviewRepository.count());
+	}
+
+	@Test
+	void eachBatchAdjustsARecipesAggregatesOnce() throws Exception {
+		List<Future<ReviewDto>> futures = submitWhileTheWriterIsBusy(users.subList(1, 6));
+
+		for (Future<ReviewDto> future : futures) {
+			assertNotNull(future.get().getId());
+		}
+		verify(recipeRepository).adjustRatingAggregates(recipe.getId(), 2 + 3 + 4 + 5 + 2, 5);
+		assertEquals(5, recipeRepository.findById(recipe.getId()).orElseThrow().getReviewCount());
+	}
+
+	@Test
+	void failedBatchIsRetriedOneByOneSoOnlyTheBadReviewIsRejected() throws Exception {
+		// Stored behind the existence filter's back, so only the insert can catch the repeat
+		User repeat = users.get(3);
+		jdbcTemplate.update("INSERT INTO reviews (user_id, recipe_id, rating, comment, created_at) VALUES (?, ?, 2, 'First go', NOW())",
+				repeat.getId(), recipe.getId());
+
+		List<Future<ReviewDto>> futures = submitWhileTheWriterIsBusy(users.subList(1, 6));
+
+		for (int i = 0; i < futures.size(); i++) {
+			if (i == 2) {
+				ExecutionException e = assertThrows(ExecutionException.class, futures.get(i)::get);
+				assertInstanceOf(IllegalArgumentException.class, e.getCause());
+			} else {
+				assertNotNull(futures.get(i).get().getId());
+			}
+		}
+		// The failed batch rolled back; each retried review then adjusted the aggregates on its own
+		verify(recipeRepository, times(4)).adjustRatingAggregates(eq(recipe.getId()), anyLong(), eq(1));
+		assertEquals(6, reviewRepository.count());
+		assertEquals(4, recipeRepository.findById(recipe.getId()).orElseThrow().getReviewCount());
+	}
+
+	@Test
+	void reviewStillQueuedWhenTheAckTimesOutIsWithdrawn() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = holdTheWriter(writing);
+		User late = users.get(1);
+		ReflectionTestUtils.setField(reviewIngestionService, "ackTimeout", Duration.ofMillis(200));
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<ReviewDto> opening = executor.submit(this::submitOpeningReview);
+			writing.await();
+
+			assertThrows(ServiceUnavailableException.class,
+					() -> reviewIngestionService.submit(review(3), late.getId(), late.getName()));
+			// Already taken by the writer, so it only gives up after a second timeout
+			ExecutionException e = assertThrows(ExecutionException.class, opening::get);
+			assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+			release.countDown();
+		} finally {
+			ReflectionTestUtils.setField(reviewIngestionService, "ackTimeout", Duration.ofSeconds(5));
+		}
+
+		// The writer still stores the review the caller gave up on
+		long deadline = System.currentTimeMillis() + 5000;
+		while (reviewRepository.count() < 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, reviewRepository.count());
+		assertNotNull(reviewIngestionService.submit(review(3), late.getId(), late.getName()).getId());
+	}
+
+	/**
+	 * Holds the writer inside the batch for an opening review of another recipe, so the given
+	 * users' reviews all queue up behind it and are written as the next batch.
+	 */
+	private List<Future<ReviewDto>> submitWhileTheWriterIsBusy(List<User> reviewers) throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = holdTheWriter(writing);
+
+		List<Future<ReviewDto>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<ReviewDto> opening = executor.submit(this::submitOpeningReview);
+			writing.await();
+			for (int i = 0; i < reviewers.size(); i++) {
+				User user = reviewers.get(i);
+				int rating = 2 + i % 4;
+				futures.add(executor.submit(() -> reviewIngestionService.submit(review(rating), user.getId(), user.getName())));
+			}
+			while (queueSize() + futures.stream().filter(Future::isDone).count() < reviewers.size()) {
+				Thread.sleep(10);
+			}
+			clearInvocations(recipeRepository);
+			release.countDown();
+			assertNotNull(opening.get().getId());
+		}
+		return futures;
+	}
+
+	// The writer counts down writing once it is inside the next batch, then waits for the returned latch
+	private CountDownLatch holdTheWriter(CountDownLatch writing) {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			writing.countDown();
+			release.await();
+			return invocation.callRealMethod();
+		}).doCallRealMethod().when(existenceFilters).addReview(anyLong(), anyLong());
+		return release;
+	}
+
+	private ReviewDto submitOpeningReview() {
+		User opener = users.get(0);
+		ReviewDto opening = review(1);
+		opening.setRecipeId(recipeRepository.save(recipe("Warm-up Toast", opener)).getId());
+		return reviewIngestionService.submit(opening, opener.getId(), opener.getName());
+	}
+
+	private int queueSize() {
+		return ((BlockingQueue<?>) ReflectionTestUtils.getField(reviewIngestionService, "queue")).size();
+	}
+
+	private static Recipe recipe(String title, User user) {
+		Recipe recipe = new Recipe();
+		recipe.setTitle(title);
+		recipe.setDescription("Everyone is making these");
+		recipe.setIngredients("noodles, chilli oil");
+		recipe.setSteps("Boil and toss");
+		recipe.setUser(user);
+		return recipe;
+	}
+
+	private ReviewDto review(int rating) {
+		ReviewDto review = new ReviewDto();
+		review.setRecipeId(recipe.getId());
+		review.setRating(rating);
+		review.setComment("Tried it tonight");
+		return review;
+	}
+}
@@ -0,0 +1,41 @@
+package com.tastyrecipes.application.service;
+
+import com.tastyrecipes.application.dto.UserDto;
+import com.tastyrecipes.application.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void registeringAnEmailTheFilterMissedIsStillADuplicate() {
+		// Written behind the existence filter's back, like an email its folding does not match
+		jdbcTemplate.update("INSERT INTO users (name, email, password, created_at) VALUES ('Early', 'late@example.com', 'secret', NOW())");
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> userService.register(new UserDto(null, "Late", "late@example.com", "secret")));
+		assertEquals("Email already in use", e.getMessage());
+		assertEquals(1, userRepository.count());
+	}
+}